@@ -2,14 +2,29 @@ package com.celements.common;
 
 import static com.google.common.base.Preconditions.*;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
+import com.celements.common.concurrent.IoExecutors;
+import com.celements.common.function.ForkCollector;
 import com.celements.common.function.ForkFunction;
+import com.celements.common.function.MemoizedFunction;
+import com.celements.common.function.RefreshingSupplier;
+import com.celements.common.function.RouteFunction;
+import com.celements.common.function.SingleFlightSupplier;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
 
 public final class MoreFunctions {
 
@@ -61,4 +76,96 @@ public final class MoreFunctions {
     return new ForkFunction<>(when, thenMap, elseMap);
   }
 
+  /**
+   * @see ForkCollector
+   */
+  @NotNull
+  public static <T, R1, R2, R> Collector<T, ?, R> fork(@Nullable Predicate<T> when,
+      @NotNull Collector<? super T, ?, R1> thenCollector,
+      @NotNull Collector<? super T, ?, R2> elseCollector,
+      @NotNull BiFunction<? super R1, ? super R2, R> merger) {
+    return ForkCollector.of(when, thenCollector, elseCollector, merger);
+  }
+
+  /**
+   * @return a {@link ForkCollector} with the 'then' result as key and the 'else' result as value
+   */
+  @NotNull
+  public static <T, R1, R2> Collector<T, ?, Map.Entry<R1, R2>> fork(@Nullable Predicate<T> when,
+      @NotNull Collector<? super T, ?, R1> thenCollector,
+      @NotNull Collector<? super T, ?, R2> elseCollector) {
+    return fork(when, thenCollector, elseCollector, Maps::immutableEntry);
+  }
+
+  /**
+   * @return the given function memoizing up to maxSize results, see {@link MemoizedFunction}
+   */
+  @NotNull
+  public static <F, T> MemoizedFunction<F, T> memoize(@NotNull Function<F, T> func,
+      long maxSize) {
+    return memoize(func, CacheBuilder.newBuilder().maximumSize(maxSize));
+  }
+
+  /**
+   * @return the given function memoizing up to maxSize results for the given time to live, see
+   *         {@link MemoizedFunction}
+   */
+  @NotNull
+  public static <F, T> MemoizedFunction<F, T> memoize(@NotNull Function<F, T> func,
+      long maxSize, @NotNull Duration ttl) {
+    return memoize(func, CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS));
+  }
+
+  /**
+   * @param cacheBuilder
+   *          configures the cache, e.g. with {@link CacheBuilder#weakKeys()} for keys not
+   *          referenced elsewhere. Note that weak keys are compared by identity ({@code ==}), thus
+   *          equal but distinct value-type keys (e.g. strings or boxed numbers) never hit.
+   * @return the given function memoizing its results, see {@link MemoizedFunction}
+   */
+  @NotNull
+  public static <F, T> MemoizedFunction<F, T> memoize(@NotNull Function<F, T> func,
+      @NotNull CacheBuilder<Object, Object> cacheBuilder) {
+    return new MemoizedFunction<>(func, cacheBuilder);
+  }
+
+  /**
+   * @return the given supplier sharing one in-flight computation among concurrent callers, see
+   *         {@link SingleFlightSupplier}
+   */
+  @NotNull
+  public static <T> SingleFlightSupplier<T> singleFlight(@NotNull Supplier<T> supplier) {
+    return new SingleFlightSupplier<>(supplier);
+  }
+
+  /**
+   * @return the given supplier caching its value for the time to live and refreshing it ahead of
+   *         expiry on the default I/O executor, see {@link RefreshingSupplier}
+   */
+  @NotNull
+  public static <T> RefreshingSupplier<T> refreshing(@NotNull Supplier<T> supplier,
+      @NotNull Duration ttl) {
+    return refreshing(supplier, ttl, IoExecutors.getDefault());
+  }
+
+  /**
+   * @return the given supplier caching its value for the time to live and refreshing it ahead of
+   *         expiry on the given executor, see {@link RefreshingSupplier}
+   */
+  @NotNull
+  public static <T> RefreshingSupplier<T> refreshing(@NotNull Supplier<T> supplier,
+      @NotNull Duration ttl, @NotNull Executor executor) {
+    return new RefreshingSupplier<>(supplier, ttl, executor);
+  }
+
+  /**
+   * @see RouteFunction
+   */
+  @NotNull
+  public static <F, T> RouteFunction<F, T> route() {
+    return new RouteFunction<>();
+  }
+
 }
@@ -1,7 +1,13 @@
 package com.celements.common;
 
+import static com.google.common.base.Preconditions.*;
+import static java.util.stream.Collectors.*;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -13,18 +19,36 @@ import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
+import com.celements.common.concurrent.IoExecutors;
+import com.celements.common.lambda.LambdaExceptionUtil.ThrowingFunction;
+import com.celements.common.lambda.Try;
+import com.celements.common.stream.BatchSpliterator;
+import com.celements.common.stream.BatchingCollector;
+import com.celements.common.stream.BatchingSpliterator;
+import com.celements.common.stream.ConcatSpliterator;
+import com.celements.common.stream.ConcurrentMappingSpliterator;
+import com.celements.common.stream.MergeSortedSpliterator;
 import com.google.common.base.Defaults;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
 import com.google.common.primitives.Primitives;
 
@@ -69,6 +93,64 @@ public final class MoreObjectsCel {
     return candidate -> MoreObjectsCel.tryCast(candidate, targetClass);
   }
 
+  /**
+   * Filters and casts the given stream to instances of {@code targetClass} in a single step,
+   * without allocating a stream per element like {@link #tryCast(Class)}.
+   *
+   * <pre>
+   *   Stream<TargetType> streamTarget = instancesOf(streamSource, TargetType.class)
+   * </pre>
+   */
+  @NotNull
+  public static <T> Stream<T> instancesOf(@NotNull Stream<?> stream,
+      @NotNull Class<T> targetClass) {
+    checkNotNull(targetClass);
+    return stream.filter(targetClass::isInstance).map(targetClass::cast);
+  }
+
+  /**
+   * Collector partitioning the elements of a stream by the given classes in a single pass. Each
+   * element is assigned to the first class it is an instance of, elements matching none are
+   * dropped. The encounter order is retained per class, also for parallel streams.
+   *
+   * <pre>
+   *   ImmutableListMultimap<Class<?>, Object> byType = stream.collect(
+   *       partitionByType(BaseObject.class, XWikiAttachment.class));
+   *   Stream<BaseObject> objects = instancesOf(byType.get(BaseObject.class).stream(),
+   *       BaseObject.class);
+   * </pre>
+   */
+  @NotNull
+  public static Collector<Object, ?, ImmutableListMultimap<Class<?>, Object>> partitionByType(
+      @NotNull Class<?>... types) {
+    Class<?>[] partitionTypes = Stream.of(types).map(type -> checkNotNull(type))
+        .toArray(Class<?>[]::new);
+    return Collector.<Object, List<List<Object>>, ImmutableListMultimap<Class<?>, Object>>of(
+        () -> Stream.generate(ArrayList::new).limit(partitionTypes.length).collect(toList()),
+        (partitions, element) -> {
+          for (int i = 0; i < partitionTypes.length; i++) {
+            if (partitionTypes[i].isInstance(element)) {
+              partitions.get(i).add(element);
+              return;
+            }
+          }
+        },
+        (left, right) -> {
+          for (int i = 0; i < partitionTypes.length; i++) {
+            left.get(i).addAll(right.get(i));
+          }
+          return left;
+        },
+        partitions -> {
+          ImmutableListMultimap.Builder<Class<?>, Object> builder = ImmutableListMultimap
+              .builder();
+          for (int i = 0; i < partitionTypes.length; i++) {
+            builder.putAll(partitionTypes[i], partitions.get(i));
+          }
+          return builder.build();
+        });
+  }
+
   /**
    * @deprecated since 5.2, instead use {@link MoreOptional#toJavaUtil}
    */
@@ -116,15 +198,15 @@ public final class MoreObjectsCel {
     return defaultValue(type, true);
   }
 
+  @SuppressWarnings("unchecked")
   private static <T> T defaultValue(Class<T> type, boolean mutable) {
-    T value = (type != null) ? Defaults.defaultValue(Primitives.unwrap(type)) : null;
-    if (value != null) {
-      return value;
-    } else if (String.class.equals(type)) {
-      return type.cast("");
-    } else {
-      return defaultValueNonNullable(type, mutable);
+    if (type == null) {
+      return null;
     }
+    DefaultValueStrategy strategy = DEFAULT_VALUES.get(type);
+    return (strategy.value != null)
+        ? (T) strategy.value // unchecked since type may be primitive
+        : type.cast(strategy.get(mutable));
   }
 
   /**
@@ -146,53 +228,318 @@ public final class MoreObjectsCel {
   }
 
   private static <T> T defaultValueNonNullable(Class<T> type, boolean mutable) {
-    if (type == null) {
-      return null;
+    return (type != null) ? type.cast(DEFAULT_VALUES.get(type).get(mutable)) : null;
+  }
+
+  private static final ClassValue<DefaultValueStrategy> DEFAULT_VALUES = classValue(
+      DefaultValueStrategy::new);
+
+  /**
+   * The default value resolution for a type, computed once per class.
+   */
+  private static final class DefaultValueStrategy {
+
+    /**
+     * default of primitive types, their wrappers and String, else null
+     */
+    final Object value;
+    final Supplier<?> immutableSupplier;
+    final Supplier<?> mutableSupplier;
+
+    DefaultValueStrategy(Class<?> type) {
+      Object primitiveValue = Defaults.defaultValue(Primitives.unwrap(type));
+      this.value = (primitiveValue != null) ? primitiveValue
+          : String.class.equals(type) ? "" : null;
+      this.immutableSupplier = nonNullableSupplier(type, false);
+      this.mutableSupplier = nonNullableSupplier(type, true);
+    }
+
+    Object get(boolean mutable) {
+      return (mutable ? mutableSupplier : immutableSupplier).get();
+    }
+
+    private static Supplier<?> nonNullableSupplier(Class<?> type, boolean mutable) {
+      if (List.class.isAssignableFrom(type)) {
+        return mutable ? ArrayList::new : ImmutableList::of;
+      } else if (Set.class.isAssignableFrom(type)) {
+        return mutable ? LinkedHashSet::new : ImmutableSet::of;
+      } else if (Queue.class.isAssignableFrom(type)) {
+        return LinkedList::new;
+      } else if (Iterable.class.isAssignableFrom(type)) {
+        return nonNullableSupplier(List.class, mutable);
+      } else if (Properties.class.isAssignableFrom(type)) {
+        return Properties::new;
+      } else if (Map.class.isAssignableFrom(type)) {
+        return mutable ? LinkedHashMap::new : ImmutableMap::of;
+      } else if (Stream.class.isAssignableFrom(type)) {
+        return Stream::empty;
+      } else if (Optional.class.isAssignableFrom(type)) {
+        return Optional::empty;
+      } else if (com.google.common.base.Optional.class.isAssignableFrom(type)) {
+        return com.google.common.base.Optional::absent;
+      } else {
+        return () -> null;
+      }
+    }
+  }
+
+  /**
+   * Streams the given value depending on its type: streams, collections, spliterators, iterables,
+   * iterators, maps (entries), optionals and arrays are streamed by their elements, null is
+   * streamed empty and any other value as a single element. The type dispatch is cached per class.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  public static <T> Stream<T> stream(@Nullable Object value) {
+    return (value != null)
+        ? (Stream<T>) STREAM_ADAPTERS.get(value.getClass()).apply(value)
+        : Stream.empty();
+  }
+
+  /**
+   * Like {@link #stream(Object)} but iterators and iterables (other than collections) are streamed
+   * by a {@link BatchSpliterator} tuned for the given size estimate. Their elements are split off
+   * in sized batches, thus parallel streams of lazily loaded sources scale across cores.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  public static <T> Stream<T> stream(@Nullable Object value, long sizeEstimate) {
+    if (value instanceof Iterator) {
+      return StreamSupport.stream(BatchSpliterator.estimated((Iterator<T>) value, sizeEstimate),
+          false);
+    } else if ((value instanceof Iterable) && !(value instanceof Collection)) {
+      return StreamSupport.stream(BatchSpliterator.estimated(((Iterable<T>) value).iterator(),
+          sizeEstimate), false);
+    } else {
+      return stream(value);
+    }
+  }
+
+  /**
+   * Flattens the given sources into a single lazy stream, each source is streamed as by
+   * {@link #stream(Object)} once it is reached. In contrast to nested {@link Stream#concat} calls
+   * the sources are split balanced for parallel processing. Closing the returned stream closes all
+   * sources which are streams.
+   */
+  @NotNull
+  public static <T> Stream<T> streamAll(@Nullable Object... sources) {
+    return streamAll((sources != null) ? Arrays.asList(sources) : ImmutableList.of());
+  }
+
+  /**
+   * @see #streamAll(Object...)
+   */
+  @NotNull
+  public static <T> Stream<T> streamAll(@Nullable Iterable<?> sources) {
+    List<Object> sourceList = (sources != null) ? Lists.newArrayList(sources) : ImmutableList.of();
+    return StreamSupport.stream(new ConcatSpliterator<Object, T>(sourceList,
+        source -> MoreObjectsCel.<T>stream(source).spliterator()), false)
+        .onClose(() -> closeAll(sourceList));
+  }
+
+  /**
+   * Lazily merges the given sources, each already sorted by {@code comparator}, into a single
+   * sorted stream with a k-way merge. Each source is streamed as by {@link #stream(Object)} and
+   * only as many elements are pulled from the sources as the returned stream consumes, e.g. a
+   * top-N is retrieved with {@code mergeSorted(comparator, sources).limit(n)}. Closing the
+   * returned stream closes all sources which are streams.
+   */
+  @NotNull
+  public static <T> Stream<T> mergeSorted(@NotNull Comparator<? super T> comparator,
+      @Nullable Object... sources) {
+    return mergeSorted(comparator, (sources != null) ? Arrays.asList(sources)
+        : ImmutableList.of());
+  }
+
+  /**
+   * @see #mergeSorted(Comparator, Object...)
+   */
+  @NotNull
+  public static <T> Stream<T> mergeSorted(@NotNull Comparator<? super T> comparator,
+      @Nullable Iterable<?> sources) {
+    List<Object> sourceList = (sources != null) ? Lists.newArrayList(sources) : ImmutableList.of();
+    return StreamSupport.stream(new MergeSortedSpliterator<Object, T>(sourceList,
+        source -> MoreObjectsCel.<T>stream(source).spliterator(), comparator), false)
+        .onClose(() -> closeAll(sourceList));
+  }
+
+  /**
+   * Lazily chunks the given stream into lists of {@code batchSize} elements, only the last batch
+   * may be smaller. At most one batch per worker is buffered at a time.
+   *
+   * <pre>
+   *   batches(docRefs, 500).forEach(bulk -> store.saveAll(bulk))
+   * </pre>
+   */
+  @NotNull
+  public static <T> Stream<List<T>> batches(@NotNull Stream<T> stream, int batchSize) {
+    return batches(stream, batchSize, null);
+  }
+
+  /**
+   * Like {@link #batches(Stream, int)} but a batch is emitted early when the {@code maxLatency}
+   * has elapsed since it was started, checked as elements arrive.
+   */
+  @NotNull
+  public static <T> Stream<List<T>> batches(@NotNull Stream<T> stream, int batchSize,
+      @Nullable Duration maxLatency) {
+    return StreamSupport.stream(new BatchingSpliterator<>(stream.spliterator(), batchSize,
+        maxLatency), stream.isParallel())
+        .onClose(stream::close);
+  }
+
+  /**
+   * @return a collector passing the elements in batches of {@code batchSize} to the given
+   *         consumer, see {@link BatchingCollector}
+   */
+  @NotNull
+  public static <T> Collector<T, ?, Long> batching(int batchSize,
+      @NotNull Consumer<? super List<T>> batchConsumer) {
+    return new BatchingCollector<>(batchSize, batchConsumer);
+  }
+
+  /**
+   * Maps the given stream with a function blocking on I/O, running at most
+   * {@code maxConcurrency} calls concurrently on {@link IoExecutors#getDefault()}. The results
+   * retain the encounter order and each captures a failure of the function for its element.
+   * Closing the returned stream cancels the calls in flight and closes the given stream.
+   *
+   * <pre>
+   *   mapConcurrent(refs, storage::loadDocument, 16)
+   *       .flatMap(Try::stream)
+   * </pre>
+   */
+  @NotNull
+  public static <T, R, E extends Exception> Stream<Try<R, E>> mapConcurrent(
+      @NotNull Stream<T> stream, @NotNull ThrowingFunction<? super T, ? extends R, E> function,
+      int maxConcurrency) {
+    return mapConcurrent(stream, function, maxConcurrency, IoExecutors.getDefault());
+  }
+
+  /**
+   * @see #mapConcurrent(Stream, ThrowingFunction, int)
+   */
+  @NotNull
+  public static <T, R, E extends Exception> Stream<Try<R, E>> mapConcurrent(
+      @NotNull Stream<T> stream, @NotNull ThrowingFunction<? super T, ? extends R, E> function,
+      int maxConcurrency, @NotNull Executor executor) {
+    ConcurrentMappingSpliterator<T, R, E> spliterator = new ConcurrentMappingSpliterator<>(
+        stream.spliterator(), function, maxConcurrency, executor);
+    return StreamSupport.stream(spliterator, false)
+        .onClose(spliterator::cancel)
+        .onClose(stream::close);
+  }
+
+  /**
+   * closes all streams, the first failure is thrown with any further suppressed
+   */
+  private static void closeAll(Iterable<?> sources) {
+    RuntimeException failure = null;
+    for (Object source : sources) {
+      if (source instanceof BaseStream) {
+        try {
+          ((BaseStream<?, ?>) source).close();
+        } catch (RuntimeException exc) {
+          if (failure == null) {
+            failure = exc;
+          } else {
+            failure.addSuppressed(exc);
+          }
+        }
+      }
     }
-    Object ret = null;
-    if (List.class.isAssignableFrom(type)) {
-      ret = (mutable ? new ArrayList<>() : ImmutableList.of());
-    } else if (Set.class.isAssignableFrom(type)) {
-      ret = (mutable ? new LinkedHashSet<>() : ImmutableSet.of());
-    } else if (Queue.class.isAssignableFrom(type)) {
-      ret = new LinkedList<>();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Like {@link #stream(Object)} but without boxing for {@code int[]} and {@link IntStream}, other
+   * elements are expected to be {@link Number}s.
+   */
+  @NotNull
+  public static IntStream intStream(@Nullable Object value) {
+    if (value instanceof int[]) {
+      return Arrays.stream((int[]) value);
+    } else if (value instanceof IntStream) {
+      return (IntStream) value;
+    } else {
+      return stream(value).mapToInt(v -> ((Number) v).intValue());
+    }
+  }
+
+  /**
+   * Like {@link #stream(Object)} but without boxing for {@code long[]} and {@link LongStream},
+   * other elements are expected to be {@link Number}s.
+   */
+  @NotNull
+  public static LongStream longStream(@Nullable Object value) {
+    if (value instanceof long[]) {
+      return Arrays.stream((long[]) value);
+    } else if (value instanceof LongStream) {
+      return (LongStream) value;
+    } else {
+      return stream(value).mapToLong(v -> ((Number) v).longValue());
+    }
+  }
+
+  /**
+   * Like {@link #stream(Object)} but without boxing for {@code double[]} and {@link DoubleStream},
+   * other elements are expected to be {@link Number}s.
+   */
+  @NotNull
+  public static DoubleStream doubleStream(@Nullable Object value) {
+    if (value instanceof double[]) {
+      return Arrays.stream((double[]) value);
+    } else if (value instanceof DoubleStream) {
+      return (DoubleStream) value;
+    } else {
+      return stream(value).mapToDouble(v -> ((Number) v).doubleValue());
+    }
+  }
+
+  private static final ClassValue<Function<Object, Stream<?>>> STREAM_ADAPTERS = classValue(
+      MoreObjectsCel::streamAdapter);
+
+  private static Function<Object, Stream<?>> streamAdapter(Class<?> type) {
+    if (Stream.class.isAssignableFrom(type)) {
+      return value -> (Stream<?>) value;
+    } else if (Collection.class.isAssignableFrom(type)) {
+      return value -> ((Collection<?>) value).stream();
+    } else if (Spliterator.class.isAssignableFrom(type)) {
+      return value -> StreamSupport.stream((Spliterator<?>) value, false);
     } else if (Iterable.class.isAssignableFrom(type)) {
-      ret = defaultValue(List.class, mutable);
-    } else if (Properties.class.isAssignableFrom(type)) {
-      ret = new Properties();
+      return value -> Streams.stream((Iterable<?>) value);
+    } else if (Iterator.class.isAssignableFrom(type)) {
+      return value -> Streams.stream((Iterator<?>) value);
     } else if (Map.class.isAssignableFrom(type)) {
-      ret = (mutable ? new LinkedHashMap<>() : ImmutableMap.of());
-    } else if (Stream.class.isAssignableFrom(type)) {
-      ret = Stream.empty();
+      return value -> ((Map<?, ?>) value).entrySet().stream();
     } else if (Optional.class.isAssignableFrom(type)) {
-      ret = Optional.empty();
+      return value -> MoreOptional.stream((Optional<?>) value);
     } else if (com.google.common.base.Optional.class.isAssignableFrom(type)) {
-      ret = com.google.common.base.Optional.absent();
+      return value -> MoreOptional.stream(
+          ((com.google.common.base.Optional<?>) value).toJavaUtil());
+    } else if (type == int[].class) {
+      return value -> Arrays.stream((int[]) value).boxed();
+    } else if (type == long[].class) {
+      return value -> Arrays.stream((long[]) value).boxed();
+    } else if (type == double[].class) {
+      return value -> Arrays.stream((double[]) value).boxed();
+    } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+      return value -> Arrays.stream((Object[]) value);
+    } else {
+      return Stream::of;
     }
-    return type.cast(ret);
   }
 
-  @SuppressWarnings("unchecked")
-  public static <T> Stream<T> stream(Object value) {
-    if (value instanceof Stream) {
-      return (Stream<T>) value;
-    } else if (value instanceof Collection) {
-      return ((Collection<T>) value).stream();
-    } else if (value instanceof Spliterator) {
-      return StreamSupport.stream((Spliterator<T>) value, false);
-    } else if (value instanceof Iterable) {
-      return Streams.stream((Iterable<T>) value);
-    } else if (value instanceof Iterator) {
-      return Streams.stream((Iterator<T>) value);
-    } else if (value instanceof Optional) {
-      return MoreOptional.stream((Optional<T>) value);
-    } else if (value instanceof com.google.common.base.Optional) {
-      return MoreOptional.stream(((com.google.common.base.Optional<T>) value).toJavaUtil());
-    } else if (value != null) {
-      return Stream.of((T) value);
-    } else {
-      return Stream.empty();
-    }
+  private static <T> ClassValue<T> classValue(Function<Class<?>, T> computeFunc) {
+    return new ClassValue<T>() {
+
+      @Override
+      protected T computeValue(Class<?> type) {
+        return computeFunc.apply(type);
+      }
+    };
   }
 
   private static final List<Class<?>> UTIL_CLASSES = ImmutableList.of(Stream.class,
@@ -200,14 +547,23 @@ public final class MoreObjectsCel {
       Properties.class, Map.class,
       Spliterator.class, Iterator.class);
 
+  private static final ClassValue<ImmutableList<Class<?>>> ASSIGNABLE_UTIL_CLASSES = classValue(
+      type -> UTIL_CLASSES.stream()
+          .filter(c -> c.isAssignableFrom(type))
+          .collect(ImmutableList.toImmutableList()));
+
   @SuppressWarnings("unchecked")
   public static <T> Stream<Class<T>> findAssignableUtilClasses(Object value) {
-    if (value == null) {
-      return Stream.empty();
-    }
-    return UTIL_CLASSES.stream()
-        .filter(c -> c.isInstance(value))
+    return getAssignableUtilClasses(value).stream()
         .map(c -> (Class<T>) c);
   }
 
+  /**
+   * @return the util classes the given value is an instance of, cached per concrete type
+   */
+  @NotNull
+  public static ImmutableList<Class<?>> getAssignableUtilClasses(@Nullable Object value) {
+    return (value != null) ? ASSIGNABLE_UTIL_CLASSES.get(value.getClass()) : ImmutableList.of();
+  }
+
 }
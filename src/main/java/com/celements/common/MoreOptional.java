@@ -1,6 +1,18 @@
 package com.celements.common;
 
+import static com.google.common.base.MoreObjects.*;
+import static com.google.common.base.Preconditions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -9,7 +21,14 @@ import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
+import com.celements.common.concurrent.IoExecutors;
+import com.celements.common.function.CachedFirstPresentFunction;
+import com.celements.common.lambda.Try;
+import com.celements.common.text.MoreStrings;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 public final class MoreOptional {
 
@@ -50,7 +69,7 @@ public final class MoreOptional {
 
   @NotNull
   public static Optional<String> asNonBlank(@Nullable String str) {
-    return ((str == null) || str.trim().isEmpty()) ? Optional.empty() : Optional.of(str);
+    return MoreStrings.isBlank(str) ? Optional.empty() : Optional.of(str);
   }
 
   /**
@@ -79,4 +98,111 @@ public final class MoreOptional {
     return findFirstPresent(Stream.of(suppliers));
   }
 
+  /**
+   * @return a function caching the first present result of the given lookups per key with a time
+   *         to live and bounded size, see {@link CachedFirstPresentFunction}
+   */
+  @NotNull
+  public static <K, T> CachedFirstPresentFunction<K, T> memoizeFirstPresent(
+      @NotNull List<? extends Function<? super K, Optional<T>>> lookups, @NotNull Duration ttl,
+      long maxSize) {
+    return new CachedFirstPresentFunction<>(lookups, ttl, maxSize);
+  }
+
+  /**
+   * Concurrent variant of {@link #findFirstPresent(Supplier...)} for independent and slow
+   * suppliers (e.g. cache, database and remote lookups). The suppliers are started in order on
+   * {@link IoExecutors#getDefault()}, each after the {@code staggerDelay} or as soon as all
+   * previously started ones completed empty.
+   *
+   * @see #findFirstPresentConcurrent(Executor, Duration, Duration, List)
+   */
+  @NotNull
+  public static <T> Optional<T> findFirstPresentConcurrent(@NotNull Duration staggerDelay,
+      @NotNull Duration timeout, @NotNull List<? extends Supplier<Optional<T>>> suppliers) {
+    return findFirstPresentConcurrent(IoExecutors.getDefault(), staggerDelay, timeout, suppliers);
+  }
+
+  /**
+   * Concurrent variant of {@link #findFirstPresent(Supplier...)}. The suppliers are started in
+   * order, each after the {@code staggerDelay} (zero to start all at once) or as soon as all
+   * previously started ones completed empty. The present result of the first supplier is returned
+   * as soon as all preceding suppliers completed empty, the remaining ones are cancelled.
+   *
+   * If the {@code timeout} elapses, the first present result of the completed suppliers is
+   * returned (if any) and all others are cancelled, the same applies if the calling thread is
+   * interrupted. A failing supplier is rethrown as soon as all preceding suppliers completed
+   * empty.
+   */
+  @NotNull
+  public static <T> Optional<T> findFirstPresentConcurrent(@NotNull Executor executor,
+      @NotNull Duration staggerDelay, @NotNull Duration timeout,
+      @NotNull List<? extends Supplier<Optional<T>>> suppliers) {
+    checkArgument(!staggerDelay.isNegative(), "negative stagger delay");
+    if (suppliers.isEmpty()) {
+      return Optional.empty();
+    }
+    long deadline = System.nanoTime() + timeout.toNanos();
+    CompletionService<Optional<T>> completion = new ExecutorCompletionService<>(executor);
+    List<Future<Optional<T>>> futures = new ArrayList<>(suppliers.size());
+    try {
+      long nextStart = System.nanoTime();
+      while (true) {
+        long now = System.nanoTime();
+        while ((futures.size() < suppliers.size())
+            && ((now >= nextStart) || futures.stream().allMatch(MoreOptional::isDoneEmpty))) {
+          Supplier<Optional<T>> supplier = suppliers.get(futures.size());
+          futures.add(completion.submit(() -> firstNonNull(supplier.get(), Optional.empty())));
+          nextStart = now + staggerDelay.toNanos();
+        }
+        for (int i = 0; i < futures.size(); i++) {
+          Future<Optional<T>> future = futures.get(i);
+          if (!future.isDone()) {
+            break;
+          }
+          Optional<T> result = getDone(future);
+          if (result.isPresent() || (i == (suppliers.size() - 1))) {
+            return result;
+          }
+        }
+        long waitUntil = (futures.size() < suppliers.size()) ? Math.min(nextStart, deadline)
+            : deadline;
+        if ((now - deadline) >= 0) {
+          return findFirstPresentDone(futures);
+        }
+        completion.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+      }
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      return findFirstPresentDone(futures);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * @return the first present result of the successfully completed futures
+   */
+  private static <T> Optional<T> findFirstPresentDone(List<Future<Optional<T>>> futures) {
+    return futures.stream()
+        .filter(f -> f.isDone() && !f.isCancelled())
+        .map(f -> Try.to(() -> f.get()).getValue().orElse(Optional.empty()))
+        .flatMap(MoreOptional::stream)
+        .findFirst();
+  }
+
+  private static boolean isDoneEmpty(Future<? extends Optional<?>> future) {
+    return future.isDone() && !future.isCancelled()
+        && Try.to(() -> !future.get().isPresent()).getValue().orElse(false);
+  }
+
+  private static <T> Optional<T> getDone(Future<Optional<T>> future) {
+    try {
+      return Futures.getDone(future);
+    } catch (ExecutionException exc) {
+      Throwables.throwIfUnchecked(exc.getCause());
+      throw new UncheckedExecutionException(exc.getCause());
+    }
+  }
+
 }
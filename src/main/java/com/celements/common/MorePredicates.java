@@ -1,16 +1,34 @@
 package com.celements.common;
 
+import static com.google.common.base.MoreObjects.*;
 import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.*;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
+import com.celements.common.function.AdaptivePredicate;
 import com.celements.common.function.ForkPredicate;
+import com.celements.common.function.MemoizedFunction;
+import com.celements.common.text.MoreStrings;
+import com.celements.common.text.MultiPatternMatcher;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
 
 public final class MorePredicates {
 
+  private static final Object NULL_KEY = new Object();
+
   private MorePredicates() {}
 
   /**
@@ -26,7 +44,7 @@ public final class MorePredicates {
    */
   @Deprecated
   public static com.google.common.base.Predicate<String> stringNotBlankPredicate() {
-    return str -> !checkNotNull(str).trim().isEmpty();
+    return str -> !MoreStrings.isBlank(checkNotNull(str));
   }
 
   /**
@@ -37,4 +55,194 @@ public final class MorePredicates {
     return new ForkPredicate<>(when);
   }
 
+  /**
+   * @return a predicate accepting if all given predicates accept, evaluated in adaptive order
+   * @see AdaptivePredicate
+   */
+  @NotNull
+  @SafeVarargs
+  public static <T> AdaptivePredicate<T> allOf(@NotNull Predicate<? super T>... predicates) {
+    return allOf(Arrays.<Predicate<? super T>>asList(predicates));
+  }
+
+  /**
+   * @return a predicate accepting if all given predicates accept, evaluated in adaptive order
+   * @see AdaptivePredicate
+   */
+  @NotNull
+  public static <T> AdaptivePredicate<T> allOf(
+      @NotNull Collection<? extends Predicate<? super T>> predicates) {
+    return new AdaptivePredicate<>(true, predicates);
+  }
+
+  /**
+   * @return a predicate accepting if any given predicate accepts, evaluated in adaptive order
+   * @see AdaptivePredicate
+   */
+  @NotNull
+  @SafeVarargs
+  public static <T> AdaptivePredicate<T> anyOf(@NotNull Predicate<? super T>... predicates) {
+    return anyOf(Arrays.<Predicate<? super T>>asList(predicates));
+  }
+
+  /**
+   * @return a predicate accepting if any given predicate accepts, evaluated in adaptive order
+   * @see AdaptivePredicate
+   */
+  @NotNull
+  public static <T> AdaptivePredicate<T> anyOf(
+      @NotNull Collection<? extends Predicate<? super T>> predicates) {
+    return new AdaptivePredicate<>(false, predicates);
+  }
+
+  /**
+   * @return the given predicate memoizing up to maxSize results, see
+   *         {@link MoreFunctions#memoize(java.util.function.Function, long)}
+   */
+  @NotNull
+  public static <T> Predicate<T> memoize(@NotNull Predicate<T> predicate, long maxSize) {
+    MemoizedFunction<T, Boolean> memoized = MoreFunctions.memoize(predicate::test, maxSize);
+    return memoized::apply;
+  }
+
+  /**
+   * @return the given predicate memoizing up to maxSize results for the given time to live, see
+   *         {@link MoreFunctions#memoize(java.util.function.Function, long, Duration)}
+   */
+  @NotNull
+  public static <T> Predicate<T> memoize(@NotNull Predicate<T> predicate, long maxSize,
+      @NotNull Duration ttl) {
+    MemoizedFunction<T, Boolean> memoized = MoreFunctions.memoize(predicate::test, maxSize, ttl);
+    return memoized::apply;
+  }
+
+  /**
+   * @return the given predicate memoizing its results in a cache configured by the given builder,
+   *         see {@link MoreFunctions#memoize(java.util.function.Function, CacheBuilder)}
+   */
+  @NotNull
+  public static <T> Predicate<T> memoize(@NotNull Predicate<T> predicate,
+      @NotNull CacheBuilder<Object, Object> cacheBuilder) {
+    MemoizedFunction<T, Boolean> memoized = MoreFunctions.memoize(predicate::test, cacheBuilder);
+    return memoized::apply;
+  }
+
+  /**
+   * @return a predicate testing if a string might be contained in the given keys, with the
+   *         given false positive probability, see
+   *         {@link #mightContain(Funnel, Collection, double)}
+   */
+  @NotNull
+  public static Predicate<String> mightContain(@NotNull Collection<String> keys, double fpp) {
+    return mightContain(Funnels.stringFunnel(UTF_8), keys, fpp);
+  }
+
+  /**
+   * Creates a compact membership predicate backed by a {@link BloomFilter}, suitable to filter
+   * large streams against large key sets. A negative result is exact, whereas a positive result is
+   * false with the given probability. If exactness is required, combine it with an exact check
+   * for the positive case, e.g. {@code mightContain(funnel, keys, 0.01).and(keys::contains)}.
+   *
+   * @param fpp
+   *          the desired false positive probability, between 0 and 1 exclusive
+   */
+  @NotNull
+  public static <T> Predicate<T> mightContain(@NotNull Funnel<? super T> funnel,
+      @NotNull Collection<? extends T> keys, double fpp) {
+    return mightContain(funnel, keys.stream(), Math.max(keys.size(), 1), fpp);
+  }
+
+  /**
+   * @param expectedInsertions
+   *          the expected number of keys, if exceeded the false positive probability degrades
+   * @see #mightContain(Funnel, Collection, double)
+   */
+  @NotNull
+  public static <T> Predicate<T> mightContain(@NotNull Funnel<? super T> funnel,
+      @NotNull Stream<? extends T> keys, long expectedInsertions, double fpp) {
+    BloomFilter<T> filter = BloomFilter.create(funnel, expectedInsertions, fpp);
+    keys.forEach(filter::put);
+    return filter::mightContain;
+  }
+
+  /**
+   * @return a predicate testing if the input contains any of the given patterns, scanning the
+   *         input once, see {@link MultiPatternMatcher}
+   */
+  @NotNull
+  public static <T extends CharSequence> Predicate<T> containsAny(
+      @NotNull Collection<? extends CharSequence> patterns) {
+    return new MultiPatternMatcher(patterns)::containsAny;
+  }
+
+  /**
+   * @return a predicate testing if the input starts with any of the given patterns, see
+   *         {@link MultiPatternMatcher}
+   */
+  @NotNull
+  public static <T extends CharSequence> Predicate<T> startsWithAny(
+      @NotNull Collection<? extends CharSequence> patterns) {
+    return new MultiPatternMatcher(patterns)::startsWithAny;
+  }
+
+  /**
+   * @return a predicate testing if the input ends with any of the given patterns, see
+   *         {@link MultiPatternMatcher}
+   */
+  @NotNull
+  public static <T extends CharSequence> Predicate<T> endsWithAny(
+      @NotNull Collection<? extends CharSequence> patterns) {
+    return new MultiPatternMatcher(patterns)::endsWithAny;
+  }
+
+  /**
+   * Stateful predicate accepting only elements with a key not seen before within a window of the
+   * most recently seen keys, as a memory bound alternative to {@link Stream#distinct()} for
+   * unbounded streams. A key is evicted from the window in least recently seen order, thereafter
+   * it is accepted again. The predicate is thread safe and may be used in parallel streams.
+   *
+   * <pre>
+   * stream.filter(MorePredicates.distinctBy(doc -> doc.getDocumentReference(), 100_000))
+   * </pre>
+   *
+   * @param windowSize
+   *          the maximum number of keys tracked
+   */
+  @NotNull
+  public static <T> Predicate<T> distinctBy(@NotNull Function<? super T, ?> keyFunction,
+      long windowSize) {
+    checkNotNull(keyFunction);
+    // a single segment keeps the eviction order exact across all keys
+    ConcurrentMap<Object, Boolean> seen = CacheBuilder.newBuilder()
+        .concurrencyLevel(1)
+        .maximumSize(windowSize)
+        .<Object, Boolean>build().asMap();
+    return t -> seen.putIfAbsent(firstNonNull(keyFunction.apply(t), NULL_KEY), true) == null;
+  }
+
+  /**
+   * Stateful predicate accepting only elements with a key not seen before, tracked in a
+   * {@link BloomFilter} of constant size. Duplicates are always rejected, but a new element is
+   * wrongly rejected as well with the given false positive probability, which degrades if the
+   * expected insertions are exceeded. The predicate is thread safe and may be used in parallel
+   * streams, the insertions are serialized so that also racing duplicates are rejected.
+   *
+   * @param fpp
+   *          the desired false positive probability, between 0 and 1 exclusive
+   */
+  @NotNull
+  public static <T, K> Predicate<T> distinctBy(@NotNull Function<? super T, K> keyFunction,
+      @NotNull Funnel<? super K> funnel, long expectedInsertions, double fpp) {
+    checkNotNull(keyFunction);
+    BloomFilter<K> seen = BloomFilter.create(funnel, expectedInsertions, fpp);
+    // put returns false if all bits were already set, thus the key was probably seen before.
+    // concurrent puts of the same new key could both return true, hence the lock
+    return t -> {
+      K key = checkNotNull(keyFunction.apply(t));
+      synchronized (seen) {
+        return seen.put(key);
+      }
+    };
+  }
+
 }
@@ -0,0 +1,208 @@
+package com.celements.common.concurrent;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Helpers to run parallel streams on dedicated {@link ForkJoinPool}s instead of the common pool,
+ * so that e.g. heavy batch jobs can't starve latency critical work. The terminal operation of a
+ * parallel stream executed within a pool runs its tasks in that pool:
+ *
+ * <pre>
+ * List<Doc> docs = ForkJoinPools.execute(ForkJoinPools.getPool("indexing", Workload.BATCH),
+ *     () -> refs.parallelStream().map(this::load).collect(toList()));
+ * </pre>
+ */
+@ThreadSafe
+public final class ForkJoinPools {
+
+  private ForkJoinPools() {}
+
+  /**
+   * Workload classes defining the default parallelism of a named pool.
+   */
+  public enum Workload {
+
+    /**
+     * short CPU bound tasks on the request path, may use all cores
+     */
+    LATENCY(1, 1),
+
+    /**
+     * long running CPU bound jobs, limited to half of the cores
+     */
+    BATCH(1, 2),
+
+    /**
+     * tasks mostly blocking on I/O, oversubscribing the cores
+     */
+    IO(4, 1);
+
+    private final int multiplier;
+    private final int divisor;
+
+    Workload(int multiplier, int divisor) {
+      this.multiplier = multiplier;
+      this.divisor = divisor;
+    }
+
+    public int getDefaultParallelism() {
+      int cores = Runtime.getRuntime().availableProcessors();
+      return Math.max(1, (cores * multiplier) / divisor);
+    }
+  }
+
+  private static final Map<String, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+  /**
+   * @return the pool registered with the given name, created with the default parallelism of the
+   *         workload on first access
+   */
+  @NotNull
+  public static ForkJoinPool getPool(@NotNull String name, @NotNull Workload workload) {
+    return getPool(name, workload.getDefaultParallelism());
+  }
+
+  /**
+   * @return the pool registered with the given name, created with the given parallelism on first
+   *         access
+   */
+  @NotNull
+  public static ForkJoinPool getPool(@NotNull String name, int parallelism) {
+    checkNotNull(name);
+    checkArgument(parallelism > 0, "parallelism must be positive");
+    return POOLS.computeIfAbsent(name, n -> newPool(n, parallelism));
+  }
+
+  /**
+   * @return a new pool with daemon worker threads named after the pool
+   */
+  @NotNull
+  public static ForkJoinPool newPool(@NotNull String name, int parallelism) {
+    checkNotNull(name);
+    return new ForkJoinPool(parallelism, pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+          .newThread(pool);
+      thread.setName(name + "-" + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+  }
+
+  /**
+   * shuts down and unregisters the named pool, if present
+   */
+  public static void shutdown(@NotNull String name) {
+    ForkJoinPool pool = POOLS.remove(name);
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Executes the given terminal operation within the pool and waits for its result. Exceptions
+   * thrown by the operation are rethrown.
+   */
+  public static <R> R execute(@NotNull ForkJoinPool pool, @NotNull Supplier<R> terminalOp) {
+    checkNotNull(terminalOp);
+    return pool.invoke(ForkJoinTask.adapt(terminalOp::get));
+  }
+
+  /**
+   * @see #execute(ForkJoinPool, Supplier)
+   */
+  public static void execute(@NotNull ForkJoinPool pool, @NotNull Runnable terminalOp) {
+    checkNotNull(terminalOp);
+    pool.invoke(ForkJoinTask.adapt(terminalOp));
+  }
+
+  /**
+   * @return the current metrics of all registered pools by name
+   */
+  @NotNull
+  public static ImmutableMap<String, PoolMetrics> getMetrics() {
+    ImmutableMap.Builder<String, PoolMetrics> builder = ImmutableMap.builder();
+    POOLS.forEach((name, pool) -> builder.put(name, new PoolMetrics(pool)));
+    return builder.build();
+  }
+
+  /**
+   * Snapshot of the state of a {@link ForkJoinPool}, see the respective getters there.
+   */
+  @Immutable
+  public static final class PoolMetrics {
+
+    private final int parallelism;
+    private final int poolSize;
+    private final int activeThreadCount;
+    private final int runningThreadCount;
+    private final long queuedTaskCount;
+    private final int queuedSubmissionCount;
+    private final long stealCount;
+
+    public PoolMetrics(@NotNull ForkJoinPool pool) {
+      this.parallelism = pool.getParallelism();
+      this.poolSize = pool.getPoolSize();
+      this.activeThreadCount = pool.getActiveThreadCount();
+      this.runningThreadCount = pool.getRunningThreadCount();
+      this.queuedTaskCount = pool.getQueuedTaskCount();
+      this.queuedSubmissionCount = pool.getQueuedSubmissionCount();
+      this.stealCount = pool.getStealCount();
+    }
+
+    public int getParallelism() {
+      return parallelism;
+    }
+
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public int getActiveThreadCount() {
+      return activeThreadCount;
+    }
+
+    public int getRunningThreadCount() {
+      return runningThreadCount;
+    }
+
+    public long getQueuedTaskCount() {
+      return queuedTaskCount;
+    }
+
+    public int getQueuedSubmissionCount() {
+      return queuedSubmissionCount;
+    }
+
+    public long getStealCount() {
+      return stealCount;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("parallelism", parallelism)
+          .add("poolSize", poolSize)
+          .add("active", activeThreadCount)
+          .add("running", runningThreadCount)
+          .add("queuedTasks", queuedTaskCount)
+          .add("queuedSubmissions", queuedSubmissionCount)
+          .add("steals", stealCount)
+          .toString();
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.celements.common.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Provides a shared executor for tasks blocking on I/O.
+ */
+@ThreadSafe
+public final class IoExecutors {
+
+  private IoExecutors() {}
+
+  private static final class Holder {
+
+    static final ExecutorService DEFAULT = createDefault();
+  }
+
+  /**
+   * @return a shared executor running each task on a virtual thread (Java 21+) or else on a cached
+   *         pool of daemon threads
+   */
+  @NotNull
+  public static ExecutorService getDefault() {
+    return Holder.DEFAULT;
+  }
+
+  static ExecutorService createDefault() {
+    try {
+      return (ExecutorService) MethodHandles.publicLookup()
+          .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+              MethodType.methodType(ExecutorService.class))
+          .invoke();
+    } catch (Throwable exc) {
+      return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+          .setNameFormat("io-executor-%d")
+          .setDaemon(true)
+          .build());
+    }
+  }
+
+}
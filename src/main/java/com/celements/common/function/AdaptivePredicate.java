@@ -0,0 +1,149 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.LongMath;
+
+/**
+ * A composite predicate short-circuiting its sub-predicates either as conjunction (all of) or
+ * disjunction (any of), which reorders them at runtime so that cheap and decisive checks run
+ * first.
+ *
+ * Every {@value #SAMPLE_INTERVAL}th evaluation is a sample, evaluating all sub-predicates while
+ * measuring their cost and outcome. Every {@value #REORDER_INTERVAL} evaluations the
+ * sub-predicates are sorted by their average cost per decisive outcome (a rejection for all of,
+ * an acceptance for any of) and the statistics are reset. Thus sub-predicates must be free of side
+ * effects, since they may be evaluated regardless of the order.
+ *
+ * <pre>
+ * stream.filter(MorePredicates.allOf(doc -> doc.isTranslation(), doc -> hasAccess(doc)))
+ * </pre>
+ */
+@ThreadSafe
+public class AdaptivePredicate<T> implements Predicate<T> {
+
+  public static final int SAMPLE_INTERVAL = 64;
+  public static final int REORDER_INTERVAL = 1024;
+
+  private final boolean conjunction;
+  private final Predicate<? super T>[] predicates;
+  private final long sampleMask;
+  private final long reorderMask;
+  private final AtomicLong evaluations = new AtomicLong();
+  private final LongAdder[] costs;
+  private final LongAdder[] decisions;
+  private final LongAdder samples = new LongAdder();
+  private volatile int[] order;
+
+  /**
+   * @param conjunction
+   *          true if all sub-predicates have to accept, false if any has to
+   */
+  public AdaptivePredicate(boolean conjunction,
+      @NotNull Collection<? extends Predicate<? super T>> predicates) {
+    this(conjunction, predicates, SAMPLE_INTERVAL, REORDER_INTERVAL);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  AdaptivePredicate(boolean conjunction, Collection<? extends Predicate<? super T>> predicates,
+      int sampleInterval, int reorderInterval) {
+    checkArgument(LongMath.isPowerOfTwo(sampleInterval) && LongMath.isPowerOfTwo(reorderInterval)
+        && (sampleInterval <= reorderInterval), "illegal intervals");
+    this.conjunction = conjunction;
+    this.predicates = predicates.toArray(new Predicate[predicates.size()]);
+    for (Predicate<? super T> predicate : this.predicates) {
+      checkNotNull(predicate);
+    }
+    this.sampleMask = sampleInterval - 1;
+    this.reorderMask = reorderInterval - 1;
+    this.costs = newAdders(this.predicates.length);
+    this.decisions = newAdders(this.predicates.length);
+    this.order = IntStream.range(0, this.predicates.length).toArray();
+  }
+
+  private static LongAdder[] newAdders(int length) {
+    LongAdder[] adders = new LongAdder[length];
+    Arrays.setAll(adders, i -> new LongAdder());
+    return adders;
+  }
+
+  @Override
+  public boolean test(T t) {
+    long count = evaluations.incrementAndGet();
+    boolean result = ((count & sampleMask) == 0) ? sample(t) : evaluate(t);
+    if ((count & reorderMask) == 0) {
+      reorder();
+    }
+    return result;
+  }
+
+  private boolean evaluate(T t) {
+    for (int idx : order) {
+      if (predicates[idx].test(t) != conjunction) {
+        return !conjunction;
+      }
+    }
+    return conjunction;
+  }
+
+  private boolean sample(T t) {
+    boolean result = conjunction;
+    for (int idx : order) {
+      long start = System.nanoTime();
+      boolean decisive = (predicates[idx].test(t) != conjunction);
+      costs[idx].add(System.nanoTime() - start);
+      if (decisive) {
+        decisions[idx].increment();
+        result = !conjunction;
+      }
+    }
+    samples.increment();
+    return result;
+  }
+
+  private synchronized void reorder() {
+    long sampleCount = samples.sumThenReset();
+    if (sampleCount > 0) {
+      double[] scores = new double[predicates.length];
+      for (int i = 0; i < predicates.length; i++) {
+        double avgCost = (double) costs[i].sumThenReset() / sampleCount;
+        // one pseudo decision avoids dividing by zero and ranks never deciding checks last
+        double decisionRate = (decisions[i].sumThenReset() + 1.0) / (sampleCount + 1.0);
+        scores[i] = avgCost / decisionRate;
+      }
+      order = IntStream.range(0, predicates.length).boxed()
+          .sorted(Comparator.comparingDouble(i -> scores[i]))
+          .mapToInt(Integer::intValue)
+          .toArray();
+    }
+  }
+
+  public boolean isConjunction() {
+    return conjunction;
+  }
+
+  /**
+   * @return the sub-predicates in their current order of evaluation
+   */
+  @NotNull
+  public ImmutableList<Predicate<? super T>> getPredicates() {
+    ImmutableList.Builder<Predicate<? super T>> builder = ImmutableList.builder();
+    for (int idx : order) {
+      builder.add(predicates[idx]);
+    }
+    return builder.build();
+  }
+
+}
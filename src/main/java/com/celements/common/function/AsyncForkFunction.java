@@ -0,0 +1,124 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Asynchronous variant of a {@link ForkFunction}, where the 'then' and 'else' branches may each be
+ * executed on their own {@link Executor}. A branch without executor is executed inline on the
+ * calling thread, thus cheap branches complete immediately while expensive ones are offloaded.
+ *
+ * The number of offloaded elements in flight is bounded, if the window is full the calling thread
+ * blocks until an element completes. A failing branch completes the future exceptionally.
+ *
+ * <pre>
+ * List<CompletableFuture<Optional<T>>> futures = stream
+ *     .map(fork(x -> isExpensive(x), x -> render(x), x -> cached(x))
+ *         .async(renderExecutor, null, 16))
+ *     .collect(toList());
+ * </pre>
+ */
+@ThreadSafe
+public class AsyncForkFunction<F, T> implements Function<F, CompletableFuture<Optional<T>>> {
+
+  private final ForkFunction<F, T> fork;
+  private final Executor thenExecutor;
+  private final Executor elseExecutor;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+
+  /**
+   * @param thenExecutor
+   *          executes the 'then' branch, inline if null
+   * @param elseExecutor
+   *          executes the 'else' branch, inline if null
+   * @param maxInFlight
+   *          the maximum number of offloaded elements not yet completed
+   */
+  public AsyncForkFunction(@NotNull ForkFunction<F, T> fork, @Nullable Executor thenExecutor,
+      @Nullable Executor elseExecutor, int maxInFlight) {
+    checkArgument(maxInFlight > 0, "maxInFlight must be positive: %s", maxInFlight);
+    this.fork = checkNotNull(fork);
+    this.thenExecutor = thenExecutor;
+    this.elseExecutor = elseExecutor;
+    this.maxInFlight = maxInFlight;
+    this.inFlight = new Semaphore(maxInFlight);
+  }
+
+  @NotNull
+  @Override
+  public CompletableFuture<Optional<T>> apply(F f) {
+    boolean then = fork.whenPred.test(f);
+    Function<F, T> func = then ? fork.thenFunc : fork.elseFunc;
+    Executor executor = then ? thenExecutor : elseExecutor;
+    if (func == null) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    } else if (executor == null) {
+      return applyInline(func, f);
+    } else {
+      return applyAsync(func, f, executor);
+    }
+  }
+
+  private CompletableFuture<Optional<T>> applyInline(Function<F, T> func, F f) {
+    CompletableFuture<Optional<T>> future = new CompletableFuture<>();
+    try {
+      future.complete(Optional.ofNullable(func.apply(f)));
+    } catch (RuntimeException exc) {
+      future.completeExceptionally(exc);
+    }
+    return future;
+  }
+
+  private CompletableFuture<Optional<T>> applyAsync(Function<F, T> func, F f, Executor executor) {
+    CompletableFuture<Optional<T>> future = new CompletableFuture<>();
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      future.completeExceptionally(exc);
+      return future;
+    }
+    try {
+      executor.execute(() -> {
+        Optional<T> result;
+        try {
+          result = Optional.ofNullable(func.apply(f));
+        } catch (Throwable exc) {
+          inFlight.release();
+          future.completeExceptionally(exc);
+          return;
+        }
+        // release before completing, since dependent stages may run on this thread and apply again
+        inFlight.release();
+        future.complete(result);
+      });
+    } catch (RejectedExecutionException exc) {
+      inFlight.release();
+      future.completeExceptionally(exc);
+    }
+    return future;
+  }
+
+  /**
+   * @return the number of offloaded elements not yet completed
+   */
+  public int getInFlightCount() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+}
@@ -0,0 +1,121 @@
+package com.celements.common.function;
+
+import static com.google.common.base.MoreObjects.*;
+import static com.google.common.base.Preconditions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Memoizing form of {@link com.celements.common.MoreOptional#findFirstPresent} for a fallback
+ * chain of lookups (e.g. user, space, wiki config and default) called repeatedly with the same
+ * keys. The result of the first lookup returning a present value is cached per key for the given
+ * time to live, as is an empty result if no lookup returns a present value.
+ *
+ * The index of the winning lookup is remembered beyond the expiry of its result. On refresh the
+ * winning lookup is tried first and only if it returns empty the chain is evaluated in order.
+ * Thus a preceding lookup returning a value only after the winner was determined isn't picked up
+ * until the key is invalidated.
+ */
+@ThreadSafe
+public class CachedFirstPresentFunction<K, T> implements Function<K, Optional<T>> {
+
+  private final ImmutableList<Function<? super K, Optional<T>>> lookups;
+  private final LoadingCache<K, Optional<T>> results;
+  private final Cache<K, Integer> winners;
+
+  public CachedFirstPresentFunction(
+      @NotNull List<? extends Function<? super K, Optional<T>>> lookups, @NotNull Duration ttl,
+      long maxSize) {
+    this(lookups, ttl, maxSize, Ticker.systemTicker());
+  }
+
+  CachedFirstPresentFunction(List<? extends Function<? super K, Optional<T>>> lookups,
+      Duration ttl, long maxSize, Ticker ticker) {
+    this.lookups = ImmutableList.copyOf(lookups);
+    this.results = CacheBuilder.newBuilder()
+        .expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS)
+        .maximumSize(maxSize)
+        .ticker(ticker)
+        .build(CacheLoader.from(this::load));
+    this.winners = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  /**
+   * @return the cached first present result of the lookups for the given key
+   */
+  @NotNull
+  @Override
+  public Optional<T> apply(@NotNull K key) {
+    try {
+      return results.getUnchecked(checkNotNull(key));
+    } catch (UncheckedExecutionException exc) {
+      Throwables.throwIfUnchecked(exc.getCause());
+      throw exc;
+    }
+  }
+
+  /**
+   * @return the index of the lookup which supplied the current or last result for the given key,
+   *         empty if unknown or no lookup returned a present value
+   */
+  @NotNull
+  public OptionalInt getWinner(@NotNull K key) {
+    Integer winner = winners.getIfPresent(checkNotNull(key));
+    return (winner != null) ? OptionalInt.of(winner) : OptionalInt.empty();
+  }
+
+  public void invalidate(@NotNull K key) {
+    results.invalidate(key);
+    winners.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    results.invalidateAll();
+    winners.invalidateAll();
+  }
+
+  private Optional<T> load(K key) {
+    Integer winner = winners.getIfPresent(key);
+    if (winner != null) {
+      Optional<T> value = lookup(winner, key);
+      if (value.isPresent()) {
+        return value;
+      }
+    }
+    for (int i = 0; i < lookups.size(); i++) {
+      if ((winner == null) || (i != winner)) {
+        Optional<T> value = lookup(i, key);
+        if (value.isPresent()) {
+          winners.put(key, i);
+          return value;
+        }
+      }
+    }
+    winners.invalidate(key);
+    return Optional.empty();
+  }
+
+  private Optional<T> lookup(int index, K key) {
+    return firstNonNull(lookups.get(index).apply(key), Optional.empty());
+  }
+
+}
@@ -0,0 +1,107 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A specialized composite collector that facilitates forked collection. Consists of a predicate
+ * 'when' and the two downstream collectors 'then' and 'else'. If 'when' evaluates to true for an
+ * element, it is collected by 'then', otherwise by 'else'. Both results are merged into the final
+ * result. The stream is traversed only once and parallel streams are combined per branch.
+ *
+ * <pre>
+ * ValidationResult result = docs.stream().collect(ForkCollector.of(
+ *     doc -> isValid(doc),
+ *     toList(),
+ *     mapping(doc -> doc.getName(), toSet()),
+ *     (valid, rejectedNames) -> new ValidationResult(valid, rejectedNames)));
+ * </pre>
+ */
+@Immutable
+public final class ForkCollector<T, R> implements Collector<T, Object[], R> {
+
+  private final Predicate<T> whenPred;
+  private final Collector<T, Object, Object> thenCollector;
+  private final Collector<T, Object, Object> elseCollector;
+  private final BiFunction<Object, Object, R> merger;
+
+  @SuppressWarnings("unchecked")
+  private ForkCollector(Predicate<T> whenPred, Collector<? super T, ?, ?> thenCollector,
+      Collector<? super T, ?, ?> elseCollector, BiFunction<?, ?, R> merger) {
+    this.whenPred = (whenPred != null) ? whenPred : t -> true;
+    this.thenCollector = (Collector<T, Object, Object>) checkNotNull(thenCollector);
+    this.elseCollector = (Collector<T, Object, Object>) checkNotNull(elseCollector);
+    this.merger = (BiFunction<Object, Object, R>) checkNotNull(merger);
+  }
+
+  @NotNull
+  public static <T, R1, R2, R> ForkCollector<T, R> of(@Nullable Predicate<T> when,
+      @NotNull Collector<? super T, ?, R1> thenCollector,
+      @NotNull Collector<? super T, ?, R2> elseCollector,
+      @NotNull BiFunction<? super R1, ? super R2, R> merger) {
+    return new ForkCollector<>(when, thenCollector, elseCollector, merger);
+  }
+
+  @Override
+  public Supplier<Object[]> supplier() {
+    Supplier<Object> thenSupplier = thenCollector.supplier();
+    Supplier<Object> elseSupplier = elseCollector.supplier();
+    return () -> new Object[] { thenSupplier.get(), elseSupplier.get() };
+  }
+
+  @Override
+  public BiConsumer<Object[], T> accumulator() {
+    BiConsumer<Object, T> thenAccumulator = thenCollector.accumulator();
+    BiConsumer<Object, T> elseAccumulator = elseCollector.accumulator();
+    return (branches, t) -> {
+      if (whenPred.test(t)) {
+        thenAccumulator.accept(branches[0], t);
+      } else {
+        elseAccumulator.accept(branches[1], t);
+      }
+    };
+  }
+
+  @Override
+  public BinaryOperator<Object[]> combiner() {
+    BinaryOperator<Object> thenCombiner = thenCollector.combiner();
+    BinaryOperator<Object> elseCombiner = elseCollector.combiner();
+    return (left, right) -> {
+      left[0] = thenCombiner.apply(left[0], right[0]);
+      left[1] = elseCombiner.apply(left[1], right[1]);
+      return left;
+    };
+  }
+
+  @Override
+  public Function<Object[], R> finisher() {
+    Function<Object, Object> thenFinisher = thenCollector.finisher();
+    Function<Object, Object> elseFinisher = elseCollector.finisher();
+    return branches -> merger.apply(thenFinisher.apply(branches[0]),
+        elseFinisher.apply(branches[1]));
+  }
+
+  @Override
+  public Set<Characteristics> characteristics() {
+    Set<Characteristics> characteristics = EnumSet.noneOf(Characteristics.class);
+    characteristics.addAll(thenCollector.characteristics());
+    characteristics.retainAll(elseCollector.characteristics());
+    characteristics.remove(Characteristics.IDENTITY_FINISH);
+    return Collections.unmodifiableSet(characteristics);
+  }
+
+}
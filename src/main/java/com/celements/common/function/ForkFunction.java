@@ -2,8 +2,8 @@ package com.celements.common.function;
 
 import static com.celements.common.MoreFunctions.*;
 
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -79,9 +79,34 @@ public class ForkFunction<F, T> implements Function<F, Optional<T>> {
   @NotNull
   @Override
   public Optional<T> apply(F f) {
-    return Optional.ofNullable(whenPred.test(f) ? thenFunc : elseFunc)
-        .map(func -> func.apply(f))
-        .filter(Objects::nonNull);
+    return Optional.ofNullable(applyNullable(f));
+  }
+
+  /**
+   * @return the result of the chosen function or null if none was chosen, without allocating
+   */
+  @Nullable
+  public T applyNullable(F f) {
+    Function<F, T> func = route(f);
+    return (func != null) ? func.apply(f) : null;
+  }
+
+  /**
+   * @return the function chosen for the element, either 'then' or 'else'
+   */
+  @Nullable
+  public Function<F, T> route(F f) {
+    return whenPred.test(f) ? thenFunc : elseFunc;
+  }
+
+  /**
+   * @return an asynchronous variant executing the branches on the given executors, inline if null
+   * @see AsyncForkFunction
+   */
+  @NotNull
+  public AsyncForkFunction<F, T> async(@Nullable Executor thenExecutor,
+      @Nullable Executor elseExecutor, int maxInFlight) {
+    return new AsyncForkFunction<>(this, thenExecutor, elseExecutor, maxInFlight);
   }
 
   @NotNull
@@ -1,7 +1,5 @@
 package com.celements.common.function;
 
-import static com.celements.common.MoreFunctions.*;
-
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -26,43 +24,48 @@ import javax.annotation.concurrent.Immutable;
 @Immutable
 public class ForkPredicate<T> implements Predicate<T> {
 
-  private final ForkFunction<T, Boolean> delegate;
-
-  private ForkPredicate(ForkFunction<T, Boolean> delegate) {
-    this.delegate = delegate;
-  }
+  private final Predicate<T> whenPred;
+  private final Consumer<T> thenDo;
+  private final Consumer<T> elseDo;
 
   public ForkPredicate(Predicate<T> when, Consumer<T> thenDo, Consumer<T> elseDo) {
-    this(new ForkFunction<>(when, asFunction(thenDo).andThen(t -> true)).elseFilter(elseDo));
+    this.whenPred = (when != null) ? when : t -> true;
+    this.thenDo = thenDo;
+    this.elseDo = elseDo;
   }
 
   public ForkPredicate(Predicate<T> when) {
-    this(new ForkFunction<>(when, t -> true, t -> false));
+    this(when, null, null);
   }
 
   public ForkPredicate() {
-    this(new ForkFunction<>(null, t -> true, t -> false));
+    this(null);
   }
 
   public ForkPredicate<T> when(Predicate<T> pred) {
-    return new ForkPredicate<>(delegate.when(pred));
+    return new ForkPredicate<>(pred, thenDo, elseDo);
   }
 
   public ForkPredicate<T> thenDo(Consumer<T> thenDo) {
-    return new ForkPredicate<>(delegate.thenMap(asFunction(thenDo).andThen(t -> true)));
+    return new ForkPredicate<>(whenPred, thenDo, elseDo);
   }
 
   public ForkPredicate<T> elseDo(Consumer<T> elseDo) {
-    return new ForkPredicate<>(delegate.elseFilter(elseDo));
+    return new ForkPredicate<>(whenPred, thenDo, elseDo);
   }
 
   @Override
   public boolean test(T t) {
-    return delegate.apply(t).orElse(false);
+    boolean result = whenPred.test(t);
+    Consumer<T> consumer = result ? thenDo : elseDo;
+    if (consumer != null) {
+      consumer.accept(t);
+    }
+    return result;
   }
 
   public Consumer<T> asConsumer() {
-    return delegate::apply;
+    return this::test;
   }
 
 }
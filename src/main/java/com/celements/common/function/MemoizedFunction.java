@@ -0,0 +1,71 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Memoizes the results of a function in a bounded, concurrent {@link LoadingCache}, configured by
+ * the given {@link CacheBuilder} (e.g. maximum size, time to live or weak keys). Concurrent calls
+ * with the same missing key compute the result only once. Null results are cached as well, null
+ * inputs aren't cached and are passed through to the function. Beware that with
+ * {@link CacheBuilder#weakKeys()} keys are compared by identity ({@code ==}) instead of
+ * {@link Object#equals(Object)}, thus it only suits keys which are reused as the same instance.
+ *
+ * <pre>
+ * stream.filter(MorePredicates.memoize(doc -> hasAccess(user, doc), 1000))
+ * </pre>
+ */
+@ThreadSafe
+public class MemoizedFunction<F, T> implements Function<F, T> {
+
+  private final Function<F, T> func;
+  private final LoadingCache<F, Optional<T>> cache;
+
+  public MemoizedFunction(@NotNull Function<F, T> func,
+      @NotNull CacheBuilder<? super F, ? super Optional<T>> cacheBuilder) {
+    this.func = checkNotNull(func);
+    this.cache = cacheBuilder.build(CacheLoader.from(f -> Optional.ofNullable(func.apply(f))));
+  }
+
+  @Nullable
+  @Override
+  public T apply(@Nullable F f) {
+    if (f == null) {
+      return func.apply(f);
+    }
+    try {
+      return cache.getUnchecked(f).orElse(null);
+    } catch (UncheckedExecutionException exc) {
+      Throwables.throwIfUnchecked(exc.getCause());
+      throw exc;
+    }
+  }
+
+  public void invalidate(@NotNull F f) {
+    cache.invalidate(checkNotNull(f));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * @return the approximate number of cached results
+   */
+  public long size() {
+    return cache.size();
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Caches the value of a supplier for a time to live and refreshes it ahead of expiry. Once a value
+ * has reached {@value #REFRESH_AHEAD_PERCENT}% of its time to live, it is still returned while a
+ * single refresh is executed asynchronously on the given executor. Only if a value has expired
+ * (e.g. initially or when the supplier hasn't been called for a while) callers block on loading,
+ * sharing one in-flight computation as in {@link SingleFlightSupplier}.
+ *
+ * A failing refresh is logged and the current value is kept until expiry, the next refresh is
+ * attempted after {@value #REFRESH_RETRY_PERCENT}% of the time to live. A failing synchronous load
+ * is thrown to the waiting callers.
+ */
+@ThreadSafe
+public class RefreshingSupplier<T> implements Supplier<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RefreshingSupplier.class);
+
+  public static final int REFRESH_AHEAD_PERCENT = 75;
+  public static final int REFRESH_RETRY_PERCENT = 5;
+
+  private final Supplier<T> loader;
+  private final long ttlNanos;
+  private final long refreshNanos;
+  private final long retryNanos;
+  private final Executor executor;
+  private final Ticker ticker;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private volatile Entry<T> entry;
+  private volatile long retryAfterNanos;
+
+  public RefreshingSupplier(@NotNull Supplier<T> supplier, @NotNull Duration ttl,
+      @NotNull Executor executor) {
+    this(supplier, ttl, executor, Ticker.systemTicker());
+  }
+
+  RefreshingSupplier(Supplier<T> supplier, Duration ttl, Executor executor, Ticker ticker) {
+    checkNotNull(supplier);
+    checkArgument(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive: %s", ttl);
+    this.ttlNanos = ttl.toNanos();
+    this.refreshNanos = Math.max(1, percentOf(ttlNanos, REFRESH_AHEAD_PERCENT));
+    this.retryNanos = Math.max(1, percentOf(ttlNanos, REFRESH_RETRY_PERCENT));
+    this.executor = checkNotNull(executor);
+    this.ticker = checkNotNull(ticker);
+    this.retryAfterNanos = ticker.read();
+    this.loader = new SingleFlightSupplier<>(() -> load(supplier));
+  }
+
+  @Override
+  public T get() {
+    Entry<T> current = entry;
+    long now = ticker.read();
+    long age = (current != null) ? (now - current.loadedNanos) : Long.MAX_VALUE;
+    if (age >= ttlNanos) {
+      return loader.get();
+    } else if ((age >= refreshNanos) && ((now - retryAfterNanos) >= 0)
+        && refreshing.compareAndSet(false, true)) {
+      refreshAsync();
+    }
+    return current.value;
+  }
+
+  /**
+   * @return the given percentage of the nanos without overflowing
+   */
+  private static long percentOf(long nanos, int percent) {
+    return ((nanos / 100) * percent) + (((nanos % 100) * percent) / 100);
+  }
+
+  private T load(Supplier<T> supplier) {
+    Entry<T> current = entry;
+    if ((current != null) && !refreshing.get()
+        && ((ticker.read() - current.loadedNanos) < refreshNanos)) {
+      // loaded meanwhile by a flight which completed before this one started
+      return current.value;
+    }
+    T value = supplier.get();
+    entry = new Entry<>(value, ticker.read());
+    return value;
+  }
+
+  private void refreshAsync() {
+    try {
+      executor.execute(() -> {
+        try {
+          loader.get();
+        } catch (RuntimeException exc) {
+          backOff();
+          LOGGER.warn("refresh - failed, keeping current value", exc);
+        } finally {
+          refreshing.set(false);
+        }
+      });
+    } catch (RejectedExecutionException exc) {
+      backOff();
+      refreshing.set(false);
+      LOGGER.warn("refresh - rejected, keeping current value", exc);
+    }
+  }
+
+  /**
+   * delays the next refresh attempt, so that a failing supplier isn't called on every access
+   */
+  private void backOff() {
+    retryAfterNanos = ticker.read() + retryNanos;
+  }
+
+  /**
+   * discards the current value, the next call loads synchronously
+   */
+  public void invalidate() {
+    entry = null;
+  }
+
+  private static final class Entry<T> {
+
+    final T value;
+    final long loadedNanos;
+
+    Entry(T value, long loadedNanos) {
+      this.value = value;
+      this.loadedNanos = loadedNanos;
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+import com.celements.common.MoreOptional;
+
+/**
+ * A multi-branch variant of {@link ForkFunction}, consisting of a list of cases 'when' -> 'then'
+ * and an 'otherwise' function. The function of the first case whose predicate evaluates to true
+ * for an element is executed for it, if none matches 'otherwise'. The cases are evaluated in a
+ * flat loop without allocations.
+ *
+ * <pre>
+ * stream.flatMap(new RouteFunction<F, T>()
+ *     .when(x -> testA(x), x -> mapA(x))
+ *     .when(x -> testB(x), x -> mapB(x))
+ *     .otherwise(x -> mapDefault(x))
+ *     .stream())
+ * </pre>
+ *
+ * If no 'otherwise' function is supplied or the chosen function returns null, the element will
+ * be filtered by returning an {@link Optional#empty()} instead.
+ */
+@Immutable
+public class RouteFunction<F, T> implements Function<F, Optional<T>> {
+
+  private final Predicate<F>[] whenPreds;
+  private final Function<F, T>[] thenFuncs;
+  private final Function<F, T> otherwiseFunc;
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public RouteFunction() {
+    this(new Predicate[0], new Function[0], null);
+  }
+
+  private RouteFunction(Predicate<F>[] whenPreds, Function<F, T>[] thenFuncs,
+      Function<F, T> otherwiseFunc) {
+    this.whenPreds = whenPreds;
+    this.thenFuncs = thenFuncs;
+    this.otherwiseFunc = otherwiseFunc;
+  }
+
+  /**
+   * @return a new instance with the given case appended
+   */
+  @NotNull
+  public RouteFunction<F, T> when(@NotNull Predicate<F> whenPred,
+      @NotNull Function<F, T> thenFunc) {
+    Predicate<F>[] preds = Arrays.copyOf(whenPreds, whenPreds.length + 1);
+    preds[whenPreds.length] = checkNotNull(whenPred);
+    Function<F, T>[] funcs = Arrays.copyOf(thenFuncs, thenFuncs.length + 1);
+    funcs[thenFuncs.length] = checkNotNull(thenFunc);
+    return new RouteFunction<>(preds, funcs, otherwiseFunc);
+  }
+
+  @NotNull
+  public RouteFunction<F, T> otherwise(@Nullable Function<F, T> otherwiseFunc) {
+    return new RouteFunction<>(whenPreds, thenFuncs, otherwiseFunc);
+  }
+
+  @NotNull
+  @Override
+  public Optional<T> apply(F f) {
+    return Optional.ofNullable(applyNullable(f));
+  }
+
+  /**
+   * @return the result of the chosen function or null if none was chosen, without allocating
+   */
+  @Nullable
+  public T applyNullable(F f) {
+    Function<F, T> func = route(f);
+    return (func != null) ? func.apply(f) : null;
+  }
+
+  /**
+   * @return the function of the first matching case, else 'otherwise'
+   */
+  @Nullable
+  public Function<F, T> route(F f) {
+    for (int i = 0; i < whenPreds.length; i++) {
+      if (whenPreds[i].test(f)) {
+        return thenFuncs[i];
+      }
+    }
+    return otherwiseFunc;
+  }
+
+  @NotNull
+  public Function<F, Stream<T>> stream() {
+    return f -> MoreOptional.stream(apply(f));
+  }
+
+}
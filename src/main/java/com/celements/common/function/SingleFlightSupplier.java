@@ -0,0 +1,84 @@
+package com.celements.common.function;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Wraps a supplier such that concurrent callers share one in-flight computation instead of each
+ * computing the value themselves. The first caller computes the value on its own thread while
+ * later callers wait for its result, including a failure. Callers arriving after completion start
+ * a new computation, thus no value is cached.
+ */
+@ThreadSafe
+public class SingleFlightSupplier<T> implements Supplier<T> {
+
+  private final Supplier<T> supplier;
+  private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+
+  public SingleFlightSupplier(@NotNull Supplier<T> supplier) {
+    this.supplier = checkNotNull(supplier);
+  }
+
+  @Override
+  public T get() {
+    CompletableFuture<T> flight = inFlight.get();
+    if (flight == null) {
+      CompletableFuture<T> newFlight = new CompletableFuture<>();
+      if (inFlight.compareAndSet(null, newFlight)) {
+        return compute(newFlight);
+      }
+      flight = inFlight.get();
+      if (flight == null) {
+        return get();
+      }
+    }
+    return await(flight);
+  }
+
+  private T compute(CompletableFuture<T> flight) {
+    try {
+      T value = supplier.get();
+      flight.complete(value);
+      return value;
+    } catch (Throwable exc) {
+      flight.completeExceptionally(exc);
+      throw exc;
+    } finally {
+      inFlight.compareAndSet(flight, null);
+    }
+  }
+
+  private T await(CompletableFuture<T> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException exc) {
+      Throwables.throwIfUnchecked(exc.getCause());
+      throw exc;
+    }
+  }
+
+  /**
+   * @return true if a computation is currently in flight
+   */
+  public boolean isInFlight() {
+    return inFlight.get() != null;
+  }
+
+  /**
+   * @return the estimated number of callers waiting for the computation in flight
+   */
+  int getWaiterCount() {
+    CompletableFuture<T> flight = inFlight.get();
+    return (flight != null) ? flight.getNumberOfDependents() : 0;
+  }
+
+}
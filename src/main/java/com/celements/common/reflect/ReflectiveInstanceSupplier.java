@@ -12,6 +12,8 @@ public class ReflectiveInstanceSupplier<T> implements Supplier<T> {
 
   private final Class<T> token;
 
+  private volatile Constructor<? extends T> constructor;
+
   public ReflectiveInstanceSupplier(@NotNull Class<T> token) {
     this.token = checkNotNull(token);
   }
@@ -19,12 +21,23 @@ public class ReflectiveInstanceSupplier<T> implements Supplier<T> {
   @Override
   public T get() {
     try {
-      Constructor<? extends T> constructor = token.getDeclaredConstructor();
-      constructor.setAccessible(true);
-      return constructor.newInstance();
+      return getConstructor().newInstance();
     } catch (ReflectiveOperationException exc) {
       throw new IllegalArgumentException(token.getName(), exc);
     }
   }
 
+  /**
+   * the constructor lookup is done once, racing threads may resolve it redundantly
+   */
+  private Constructor<? extends T> getConstructor() throws NoSuchMethodException {
+    Constructor<? extends T> ctor = constructor;
+    if (ctor == null) {
+      ctor = token.getDeclaredConstructor();
+      ctor.setAccessible(true);
+      constructor = ctor;
+    }
+    return ctor;
+  }
+
 }
@@ -0,0 +1,147 @@
+package com.celements.common.stream;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Spliterator over an {@link Iterator} splitting off batches into array spliterators, which are
+ * {@link #SIZED} and {@link #SUBSIZED}. In contrast to
+ * {@link Spliterators#spliterator(Iterator, long, int)} the initial batch size is derived from the
+ * size estimate, so that also small but expensive sources (e.g. lazily loaded results) are
+ * distributed over all workers of a parallel stream. Like there, the batches grow arithmetically
+ * per split up to {@link #MAX_BATCH_SIZE}, by the initial batch size or by
+ * {@link #DEFAULT_BATCH_SIZE} once the size estimate is exceeded.
+ */
+@NotThreadSafe
+public class BatchSpliterator<T> implements Spliterator<T> {
+
+  public static final int MAX_BATCH_SIZE = 1 << 14;
+  public static final int DEFAULT_BATCH_SIZE = 1 << 10;
+
+  private static final int BATCH_DIVISOR = 64;
+
+  private final Iterator<? extends T> iterator;
+  private final int characteristics;
+  private final int batchUnit;
+  private int batchSize;
+  private long size;
+
+  /**
+   * @param size
+   *          the exact size if {@code characteristics} contains {@link #SIZED}, else an estimate
+   *          or {@link Long#MAX_VALUE} if unknown
+   * @param batchSize
+   *          the size of the first batch, each further batch grows by it
+   */
+  public BatchSpliterator(@NotNull Iterator<? extends T> iterator, long size, int characteristics,
+      int batchSize) {
+    checkArgument(size >= 0, "negative size");
+    checkArgument(batchSize > 0, "batch size must be positive");
+    this.iterator = checkNotNull(iterator);
+    this.size = size;
+    this.characteristics = ((characteristics & SIZED) != 0)
+        ? (characteristics | SUBSIZED)
+        : (characteristics & ~SUBSIZED);
+    this.batchUnit = Math.min(batchSize, MAX_BATCH_SIZE);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * @return a spliterator with an initial batch size tuned for the given size estimate
+   */
+  @NotNull
+  public static <T> BatchSpliterator<T> estimated(@NotNull Iterator<? extends T> iterator,
+      long sizeEstimate) {
+    return new BatchSpliterator<>(iterator, Math.max(sizeEstimate, 0), ORDERED,
+        batchSizeFor(sizeEstimate));
+  }
+
+  /**
+   * @return a {@link #SIZED} spliterator with an initial batch size tuned for the given exact
+   *         size
+   */
+  @NotNull
+  public static <T> BatchSpliterator<T> sized(@NotNull Iterator<? extends T> iterator,
+      long size) {
+    return new BatchSpliterator<>(iterator, size, ORDERED | SIZED, batchSizeFor(size));
+  }
+
+  /**
+   * @return an initial batch size splitting the given size into a few dozen growing batches,
+   *         bounded by {@link #DEFAULT_BATCH_SIZE}, which is also returned for an unknown size
+   */
+  public static int batchSizeFor(long size) {
+    if ((size <= 0) || (size == Long.MAX_VALUE)) {
+      return DEFAULT_BATCH_SIZE;
+    }
+    return (int) Math.max(1, Math.min(DEFAULT_BATCH_SIZE, size / BATCH_DIVISOR));
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    if (!iterator.hasNext() || (hasCharacteristics(SIZED) && (size <= 1))) {
+      return null;
+    }
+    int max = (int) Math.min(batchSize, hasCharacteristics(SIZED) ? (size - 1) : batchSize);
+    Object[] batch = new Object[max];
+    int count = 0;
+    while ((count < max) && iterator.hasNext()) {
+      batch[count++] = iterator.next();
+    }
+    if (size != Long.MAX_VALUE) {
+      size = Math.max(0, size - count);
+    }
+    batchSize = (int) Math.min(MAX_BATCH_SIZE,
+        (long) batchSize + ((size > 0) ? batchUnit : DEFAULT_BATCH_SIZE));
+    return Spliterators.spliterator(batch, 0, count, characteristics | SIZED | SUBSIZED);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    checkNotNull(action);
+    if (iterator.hasNext()) {
+      action.accept(iterator.next());
+      if ((size != Long.MAX_VALUE) && (size > 0)) {
+        size--;
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    checkNotNull(action);
+    iterator.forEachRemaining(action);
+    if (size != Long.MAX_VALUE) {
+      size = 0;
+    }
+  }
+
+  @Override
+  public long estimateSize() {
+    return size;
+  }
+
+  @Override
+  public int characteristics() {
+    return characteristics;
+  }
+
+  @Override
+  public Comparator<? super T> getComparator() {
+    if (hasCharacteristics(SORTED)) {
+      return null;
+    }
+    throw new IllegalStateException();
+  }
+
+}
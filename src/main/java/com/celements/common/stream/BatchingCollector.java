@@ -0,0 +1,105 @@
+package com.celements.common.stream;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Collector passing the elements of a stream in batches of a fixed size to a consumer, e.g. for
+ * bulk persistence. Full batches are passed on as soon as they are collected, only the last one
+ * may be smaller. The result is the number of batches passed on.
+ *
+ * For parallel streams each worker collects its own batches, thus the consumer has to be thread
+ * safe and the order of the elements is not retained across batches.
+ */
+@Immutable
+public class BatchingCollector<T> implements Collector<T, BatchingCollector.Batches<T>, Long> {
+
+  private final int batchSize;
+  private final Consumer<? super List<T>> batchConsumer;
+
+  public BatchingCollector(int batchSize, @NotNull Consumer<? super List<T>> batchConsumer) {
+    checkArgument(batchSize > 0, "batch size must be positive");
+    this.batchSize = batchSize;
+    this.batchConsumer = checkNotNull(batchConsumer);
+  }
+
+  @Override
+  public Supplier<Batches<T>> supplier() {
+    return () -> new Batches<>(batchSize, batchConsumer);
+  }
+
+  @Override
+  public BiConsumer<Batches<T>, T> accumulator() {
+    return Batches::add;
+  }
+
+  @Override
+  public BinaryOperator<Batches<T>> combiner() {
+    return Batches::combine;
+  }
+
+  @Override
+  public Function<Batches<T>, Long> finisher() {
+    return Batches::finish;
+  }
+
+  @Override
+  public Set<Characteristics> characteristics() {
+    return EnumSet.of(Characteristics.UNORDERED);
+  }
+
+  static final class Batches<T> {
+
+    private final int batchSize;
+    private final Consumer<? super List<T>> batchConsumer;
+    private List<T> current;
+    private long count;
+
+    Batches(int batchSize, Consumer<? super List<T>> batchConsumer) {
+      this.batchSize = batchSize;
+      this.batchConsumer = batchConsumer;
+      this.current = new ArrayList<>(batchSize);
+    }
+
+    void add(T element) {
+      current.add(element);
+      if (current.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    Batches<T> combine(Batches<T> other) {
+      other.current.forEach(this::add);
+      count += other.count;
+      return this;
+    }
+
+    long finish() {
+      if (!current.isEmpty()) {
+        flush();
+      }
+      return count;
+    }
+
+    private void flush() {
+      List<T> batch = current;
+      current = new ArrayList<>(batchSize);
+      count++;
+      batchConsumer.accept(batch);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.celements.common.stream;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Spliterator chunking the elements of a source spliterator into lists of a fixed size, only the
+ * last batch (or the last of each split) may be smaller. Batches are pulled lazily, at most one
+ * batch is buffered at a time.
+ *
+ * If a max latency is set, a batch is also emitted as soon as an element arrives after the
+ * latency has elapsed since the batch was started. Since the source is pulled, a blocking source
+ * can't be flushed before its next element arrives.
+ */
+@NotThreadSafe
+public class BatchingSpliterator<T> implements Spliterator<List<T>> {
+
+  private final Spliterator<T> source;
+  private final int batchSize;
+  private final long maxLatencyNanos;
+  private final Ticker ticker;
+
+  public BatchingSpliterator(@NotNull Spliterator<T> source, int batchSize) {
+    this(source, batchSize, null);
+  }
+
+  public BatchingSpliterator(@NotNull Spliterator<T> source, int batchSize,
+      @Nullable Duration maxLatency) {
+    this(source, batchSize, (maxLatency != null) ? maxLatency.toNanos() : Long.MAX_VALUE,
+        Ticker.systemTicker());
+  }
+
+  BatchingSpliterator(Spliterator<T> source, int batchSize, long maxLatencyNanos, Ticker ticker) {
+    checkArgument(batchSize > 0, "batch size must be positive");
+    checkArgument(maxLatencyNanos > 0, "max latency must be positive");
+    this.source = checkNotNull(source);
+    this.batchSize = batchSize;
+    this.maxLatencyNanos = maxLatencyNanos;
+    this.ticker = checkNotNull(ticker);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super List<T>> action) {
+    checkNotNull(action);
+    List<T> batch = new ArrayList<>((int) Math.min(batchSize, source.estimateSize()));
+    boolean timed = (maxLatencyNanos != Long.MAX_VALUE);
+    long start = timed ? ticker.read() : 0;
+    while ((batch.size() < batchSize) && source.tryAdvance(batch::add)) {
+      if (timed && ((ticker.read() - start) >= maxLatencyNanos)) {
+        break;
+      }
+    }
+    if (batch.isEmpty()) {
+      return false;
+    }
+    action.accept(batch);
+    return true;
+  }
+
+  @Override
+  public Spliterator<List<T>> trySplit() {
+    Spliterator<T> prefix = source.trySplit();
+    return (prefix != null)
+        ? new BatchingSpliterator<>(prefix, batchSize, maxLatencyNanos, ticker)
+        : null;
+  }
+
+  @Override
+  public long estimateSize() {
+    long size = source.estimateSize();
+    return (size == Long.MAX_VALUE) ? size : ((size + batchSize - 1) / batchSize);
+  }
+
+  @Override
+  public int characteristics() {
+    return NONNULL | (source.characteristics() & ORDERED);
+  }
+
+}
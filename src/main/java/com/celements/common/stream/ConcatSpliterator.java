@@ -0,0 +1,112 @@
+package com.celements.common.stream;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Spliterator concatenating the elements of many sources without nesting, in contrast to repeated
+ * {@link java.util.stream.Stream#concat}. A source is only opened to a spliterator once traversal
+ * reaches it. Splitting halves the not yet opened sources first, thus the resulting task tree is
+ * balanced, and single sources are split by their own spliterator.
+ */
+@NotThreadSafe
+public class ConcatSpliterator<S, T> implements Spliterator<T> {
+
+  private final List<? extends S> sources;
+  private final Function<? super S, ? extends Spliterator<? extends T>> opener;
+  private int index;
+  private final int end;
+  private Spliterator<? extends T> current;
+
+  /**
+   * @param sources
+   *          may not be modified during traversal
+   * @param opener
+   *          opens a source to its spliterator
+   */
+  public ConcatSpliterator(@NotNull List<? extends S> sources,
+      @NotNull Function<? super S, ? extends Spliterator<? extends T>> opener) {
+    this(sources, opener, 0, sources.size());
+  }
+
+  private ConcatSpliterator(List<? extends S> sources,
+      Function<? super S, ? extends Spliterator<? extends T>> opener, int index, int end) {
+    this.sources = checkNotNull(sources);
+    this.opener = checkNotNull(opener);
+    this.index = index;
+    this.end = end;
+  }
+
+  private boolean openNext() {
+    if (index < end) {
+      current = checkNotNull(opener.apply(sources.get(index++)));
+      return true;
+    }
+    current = null;
+    return false;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    checkNotNull(action);
+    while ((current != null) || openNext()) {
+      if (current.tryAdvance(action)) {
+        return true;
+      }
+      current = null;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    checkNotNull(action);
+    while ((current != null) || openNext()) {
+      current.forEachRemaining(action);
+      current = null;
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Spliterator<T> trySplit() {
+    int unopened = end - index;
+    if ((current == null) && (unopened > 1)) {
+      int mid = (index + end) >>> 1;
+      Spliterator<T> prefix = new ConcatSpliterator<>(sources, opener, index, mid);
+      index = mid;
+      return prefix;
+    } else if ((current != null) && (unopened > 0)) {
+      Spliterator<? extends T> prefix = current;
+      current = null;
+      return (Spliterator<T>) prefix;
+    } else if ((current != null) || openNext()) {
+      return (Spliterator<T>) current.trySplit();
+    }
+    return null;
+  }
+
+  /**
+   * @return {@link Long#MAX_VALUE} as long as not all sources are opened
+   */
+  @Override
+  public long estimateSize() {
+    if (index < end) {
+      return Long.MAX_VALUE;
+    }
+    return (current != null) ? current.estimateSize() : 0;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.celements.common.stream;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.validation.constraints.NotNull;
+
+import com.celements.common.lambda.LambdaExceptionUtil.ThrowingFunction;
+import com.celements.common.lambda.Try;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Spliterator mapping the elements of a source spliterator concurrently on an executor, with at
+ * most {@code maxConcurrency} calls in flight. The results are returned in encounter order of the
+ * source, each as a {@link Try} capturing a failure of the function for its element. The source
+ * is pulled ahead by up to {@code maxConcurrency} elements, the spliterator doesn't split.
+ */
+@NotThreadSafe
+public class ConcurrentMappingSpliterator<T, R, E extends Exception>
+    implements Spliterator<Try<R, E>> {
+
+  private final Spliterator<T> source;
+  private final ThrowingFunction<? super T, ? extends R, E> function;
+  private final int maxConcurrency;
+  private final Executor executor;
+  private final Deque<FutureTask<Try<R, E>>> inFlight = new ArrayDeque<>();
+
+  public ConcurrentMappingSpliterator(@NotNull Spliterator<T> source,
+      @NotNull ThrowingFunction<? super T, ? extends R, E> function, int maxConcurrency,
+      @NotNull Executor executor) {
+    checkArgument(maxConcurrency > 0, "max concurrency must be positive");
+    this.source = checkNotNull(source);
+    this.function = checkNotNull(function);
+    this.maxConcurrency = maxConcurrency;
+    this.executor = checkNotNull(executor);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Try<R, E>> action) {
+    checkNotNull(action);
+    while ((inFlight.size() < maxConcurrency) && source.tryAdvance(this::submit)) {}
+    FutureTask<Try<R, E>> next = inFlight.poll();
+    if (next != null) {
+      action.accept(join(next));
+      return true;
+    }
+    return false;
+  }
+
+  private void submit(T element) {
+    // a FutureTask instead of a CompletableFuture, since only the former interrupts on cancel
+    FutureTask<Try<R, E>> task = new FutureTask<>(() -> Try.to(() -> function.apply(element)));
+    executor.execute(task);
+    inFlight.add(task);
+  }
+
+  private Try<R, E> join(FutureTask<Try<R, E>> future) {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException exc) {
+      // the function failures are captured, thus only errors remain
+      Throwables.throwIfUnchecked(exc.getCause());
+      throw new UncheckedExecutionException(exc.getCause());
+    }
+  }
+
+  /**
+   * cancels all calls in flight by interrupting them, their results are discarded
+   */
+  public void cancel() {
+    FutureTask<Try<R, E>> future;
+    while ((future = inFlight.poll()) != null) {
+      future.cancel(true);
+    }
+  }
+
+  @Override
+  public Spliterator<Try<R, E>> trySplit() {
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    long size = source.estimateSize();
+    return (size < (Long.MAX_VALUE - inFlight.size())) ? (size + inFlight.size()) : Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return NONNULL | (source.characteristics() & (ORDERED | SIZED | SUBSIZED));
+  }
+
+}
@@ -0,0 +1,127 @@
+package com.celements.common.stream;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Spliterator merging sources which are each sorted by the same comparator into a single sorted
+ * sequence (k-way merge). The current head element of every source is kept in a heap, so only as
+ * many elements are pulled from the sources as are consumed. Elements comparing equal are
+ * returned in the order of their sources. The sources are opened on first traversal, the
+ * spliterator doesn't split.
+ */
+@NotThreadSafe
+public class MergeSortedSpliterator<S, T> implements Spliterator<T> {
+
+  private final List<? extends S> sources;
+  private final Function<? super S, ? extends Spliterator<? extends T>> opener;
+  private final Comparator<? super T> comparator;
+  private PriorityQueue<Head<T>> heap;
+
+  /**
+   * @param sources
+   *          may not be modified during traversal
+   * @param opener
+   *          opens a source to its spliterator, which has to be sorted by {@code comparator}
+   */
+  public MergeSortedSpliterator(@NotNull List<? extends S> sources,
+      @NotNull Function<? super S, ? extends Spliterator<? extends T>> opener,
+      @NotNull Comparator<? super T> comparator) {
+    this.sources = checkNotNull(sources);
+    this.opener = checkNotNull(opener);
+    this.comparator = checkNotNull(comparator);
+  }
+
+  private PriorityQueue<Head<T>> getHeap() {
+    if (heap == null) {
+      Comparator<Head<T>> headComparator = (h1, h2) -> comparator.compare(h1.value, h2.value);
+      heap = new PriorityQueue<>(Math.max(1, sources.size()),
+          headComparator.thenComparingInt(h -> h.index));
+      for (int i = 0; i < sources.size(); i++) {
+        Head<T> head = new Head<>(i, checkNotNull(opener.apply(sources.get(i))));
+        if (head.advance()) {
+          heap.add(head);
+        }
+      }
+    }
+    return heap;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    checkNotNull(action);
+    Head<T> head = getHeap().poll();
+    if (head != null) {
+      T value = head.value;
+      if (head.advance()) {
+        heap.add(head);
+      }
+      action.accept(value);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    if (heap == null) {
+      return Long.MAX_VALUE;
+    }
+    long size = 0;
+    for (Head<T> head : heap) {
+      long remaining = head.spliterator.estimateSize();
+      if ((remaining == Long.MAX_VALUE) || (remaining >= (Long.MAX_VALUE - size - 1))) {
+        return Long.MAX_VALUE;
+      }
+      size += remaining + 1;
+    }
+    return size;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SORTED;
+  }
+
+  @Override
+  public Comparator<? super T> getComparator() {
+    return comparator;
+  }
+
+  private static final class Head<T> implements Consumer<T> {
+
+    final int index;
+    final Spliterator<? extends T> spliterator;
+    T value;
+
+    Head(int index, Spliterator<? extends T> spliterator) {
+      this.index = index;
+      this.spliterator = spliterator;
+    }
+
+    boolean advance() {
+      value = null;
+      return spliterator.tryAdvance(this);
+    }
+
+    @Override
+    public void accept(T value) {
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,174 @@
+package com.celements.common.text;
+
+import static com.google.common.base.Preconditions.*;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Allocation-free string utilities over {@link CharSequence}. Whitespace is defined as in
+ * {@link String#trim()}, i.e. any character less than or equal to the space character.
+ */
+public final class MoreStrings {
+
+  private MoreStrings() {}
+
+  /**
+   * Receives a token as the region [start, end) of a sequence, thus without copying it.
+   */
+  @FunctionalInterface
+  public interface TokenConsumer {
+
+    void accept(@NotNull CharSequence seq, int start, int end);
+
+  }
+
+  /**
+   * @return true if the given sequence is null, empty or contains only whitespace, equivalent to
+   *         {@code str.trim().isEmpty()} without allocating
+   */
+  public static boolean isBlank(@Nullable CharSequence seq) {
+    return (seq == null) || (trimStart(seq, 0, seq.length()) == seq.length());
+  }
+
+  public static boolean isNotBlank(@Nullable CharSequence seq) {
+    return !isBlank(seq);
+  }
+
+  /**
+   * @return a view of the given sequence without leading and trailing whitespace, the sequence
+   *         itself if there is none
+   */
+  @NotNull
+  public static CharSequence trimmedView(@NotNull CharSequence seq) {
+    int start = trimStart(seq, 0, seq.length());
+    int end = trimEnd(seq, start, seq.length());
+    return ((start == 0) && (end == seq.length())) ? seq : new View(seq, start, end);
+  }
+
+  /**
+   * @return true if both sequences are equal ignoring leading and trailing whitespace, or both
+   *         are null
+   */
+  public static boolean equalsTrimmed(@Nullable CharSequence seq1, @Nullable CharSequence seq2) {
+    if ((seq1 == null) || (seq2 == null)) {
+      return seq1 == seq2;
+    }
+    int start1 = trimStart(seq1, 0, seq1.length());
+    int end1 = trimEnd(seq1, start1, seq1.length());
+    int start2 = trimStart(seq2, 0, seq2.length());
+    int end2 = trimEnd(seq2, start2, seq2.length());
+    if ((end1 - start1) != (end2 - start2)) {
+      return false;
+    }
+    for (int i = start1, j = start2; i < end1; i++, j++) {
+      if (seq1.charAt(i) != seq2.charAt(j)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * passes each whitespace separated token of the given sequence to the consumer
+   *
+   * @return the number of tokens
+   */
+  public static int forEachToken(@NotNull CharSequence seq, @NotNull TokenConsumer consumer) {
+    checkNotNull(consumer);
+    int count = 0;
+    int start = trimStart(seq, 0, seq.length());
+    while (start < seq.length()) {
+      int end = start;
+      while ((end < seq.length()) && !isWhitespace(seq.charAt(end))) {
+        end++;
+      }
+      consumer.accept(seq, start, end);
+      count++;
+      start = trimStart(seq, end, seq.length());
+    }
+    return count;
+  }
+
+  /**
+   * passes each token of the given sequence separated by the delimiter to the consumer, trimmed
+   * and skipped if blank, e.g. {@code " a, ,b "} yields {@code "a"} and {@code "b"}
+   *
+   * @return the number of tokens
+   */
+  public static int forEachToken(@NotNull CharSequence seq, char delimiter,
+      @NotNull TokenConsumer consumer) {
+    checkNotNull(consumer);
+    int count = 0;
+    for (int from = 0; from <= seq.length(); from++) {
+      int to = from;
+      while ((to < seq.length()) && (seq.charAt(to) != delimiter)) {
+        to++;
+      }
+      int start = trimStart(seq, from, to);
+      int end = trimEnd(seq, start, to);
+      if (start < end) {
+        consumer.accept(seq, start, end);
+        count++;
+      }
+      from = to;
+    }
+    return count;
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c <= ' ';
+  }
+
+  private static int trimStart(CharSequence seq, int start, int end) {
+    while ((start < end) && isWhitespace(seq.charAt(start))) {
+      start++;
+    }
+    return start;
+  }
+
+  private static int trimEnd(CharSequence seq, int start, int end) {
+    while ((end > start) && isWhitespace(seq.charAt(end - 1))) {
+      end--;
+    }
+    return end;
+  }
+
+  @Immutable
+  private static final class View implements CharSequence {
+
+    private final CharSequence seq;
+    private final int start;
+    private final int end;
+
+    View(CharSequence seq, int start, int end) {
+      this.seq = seq;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      checkElementIndex(index, length());
+      return seq.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      checkPositionIndexes(from, to, length());
+      return new View(seq, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      return seq.subSequence(start, end).toString();
+    }
+  }
+
+}
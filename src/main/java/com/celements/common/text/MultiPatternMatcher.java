@@ -0,0 +1,188 @@
+package com.celements.common.text;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Matches a set of string patterns against an input in a single pass, regardless of the number of
+ * patterns (Aho-Corasick). The patterns are compiled once into an automaton stored in flat arrays:
+ * the transitions of each state are sorted by character and looked up by binary search, failure
+ * links lead to the state of the longest proper suffix and a state is accepting if a pattern ends
+ * in it or any of its failure states.
+ *
+ * <pre>
+ * MultiPatternMatcher matcher = new MultiPatternMatcher(blacklist);
+ * stream.filter(str -> !matcher.containsAny(str))
+ * </pre>
+ */
+@Immutable
+public final class MultiPatternMatcher {
+
+  private static final int ROOT = 0;
+
+  private final int patternCount;
+  /** transitions of state s are at indices [edgeStart[s], edgeStart[s + 1]) */
+  private final int[] edgeStart;
+  private final char[] edgeChars;
+  private final int[] edgeTargets;
+  private final int[] failure;
+  /** dense transitions of the root for ASCII characters, since most failure chains end there */
+  private final int[] rootAscii = new int[128];
+  /** true if a pattern ends in the state */
+  private final boolean[] terminal;
+  /** true if a pattern ends in the state or one of its failure states */
+  private final boolean[] accepting;
+
+  public MultiPatternMatcher(@NotNull Collection<? extends CharSequence> patterns) {
+    List<Map<Character, Integer>> trie = new ArrayList<>();
+    List<Boolean> terminals = new ArrayList<>();
+    trie.add(new TreeMap<>());
+    terminals.add(false);
+    for (CharSequence pattern : patterns) {
+      int state = ROOT;
+      for (int i = 0; i < checkNotNull(pattern).length(); i++) {
+        Integer next = trie.get(state).get(pattern.charAt(i));
+        if (next == null) {
+          next = trie.size();
+          trie.get(state).put(pattern.charAt(i), next);
+          trie.add(new TreeMap<>());
+          terminals.add(false);
+        }
+        state = next;
+      }
+      terminals.set(state, true);
+    }
+    this.patternCount = patterns.size();
+    int stateCount = trie.size();
+    this.edgeStart = new int[stateCount + 1];
+    this.edgeChars = new char[stateCount - 1];
+    this.edgeTargets = new int[stateCount - 1];
+    this.failure = new int[stateCount];
+    this.terminal = new boolean[stateCount];
+    this.accepting = new boolean[stateCount];
+    int edge = 0;
+    for (int state = 0; state < stateCount; state++) {
+      terminal[state] = terminals.get(state);
+      edgeStart[state] = edge;
+      for (Map.Entry<Character, Integer> entry : trie.get(state).entrySet()) {
+        edgeChars[edge] = entry.getKey();
+        edgeTargets[edge++] = entry.getValue();
+      }
+    }
+    edgeStart[stateCount] = edge;
+    for (char c = 0; c < rootAscii.length; c++) {
+      rootAscii[c] = Math.max(transition(ROOT, c), ROOT);
+    }
+    link();
+  }
+
+  /**
+   * computes the failure links and accepting states breadth first, so that the failure state of a
+   * state is always computed before the state itself
+   */
+  private void link() {
+    accepting[ROOT] = terminal[ROOT];
+    Deque<Integer> queue = new ArrayDeque<>();
+    queue.add(ROOT);
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (int edge = edgeStart[state]; edge < edgeStart[state + 1]; edge++) {
+        int target = edgeTargets[edge];
+        failure[target] = (state == ROOT) ? ROOT : next(failure[state], edgeChars[edge]);
+        accepting[target] = terminal[target] || accepting[failure[target]];
+        queue.add(target);
+      }
+    }
+  }
+
+  private int transition(int state, char c) {
+    int low = edgeStart[state];
+    int high = edgeStart[state + 1] - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char midChar = edgeChars[mid];
+      if (midChar < c) {
+        low = mid + 1;
+      } else if (midChar > c) {
+        high = mid - 1;
+      } else {
+        return edgeTargets[mid];
+      }
+    }
+    return -1;
+  }
+
+  private int next(int state, char c) {
+    while (true) {
+      if ((state == ROOT) && (c < rootAscii.length)) {
+        return rootAscii[c];
+      }
+      int target = transition(state, c);
+      if (target >= 0) {
+        return target;
+      } else if (state == ROOT) {
+        return ROOT;
+      }
+      state = failure[state];
+    }
+  }
+
+  /**
+   * @return true if any pattern occurs in the given input
+   */
+  public boolean containsAny(@NotNull CharSequence input) {
+    int state = ROOT;
+    if (accepting[state]) {
+      return true;
+    }
+    for (int i = 0; i < input.length(); i++) {
+      state = next(state, input.charAt(i));
+      if (accepting[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the given input starts with any pattern
+   */
+  public boolean startsWithAny(@NotNull CharSequence input) {
+    int state = ROOT;
+    for (int i = 0; !terminal[state] && (i < input.length()); i++) {
+      state = transition(state, input.charAt(i));
+      if (state < 0) {
+        return false;
+      }
+    }
+    return terminal[state];
+  }
+
+  /**
+   * @return true if the given input ends with any pattern
+   */
+  public boolean endsWithAny(@NotNull CharSequence input) {
+    int state = ROOT;
+    for (int i = 0; i < input.length(); i++) {
+      state = next(state, input.charAt(i));
+    }
+    // the final state represents the longest suffix of the input being a pattern prefix, thus any
+    // pattern being a suffix of the input ends in it or one of its failure states
+    return accepting[state];
+  }
+
+  public int getPatternCount() {
+    return patternCount;
+  }
+
+}
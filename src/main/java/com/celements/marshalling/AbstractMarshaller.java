@@ -2,21 +2,33 @@ package com.celements.marshalling;
 
 import static com.google.common.base.Preconditions.*;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Interner;
 
 public abstract class AbstractMarshaller<T> implements Marshaller<T> {
 
   protected final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
   private final Class<T> token;
+  private final Interner<T> interner;
 
   public AbstractMarshaller(@NotNull Class<T> token) {
+    this(token, null);
+  }
+
+  /**
+   * @param interner
+   *          if set, resolved values may be deduplicated with {@link #intern(Object)}
+   */
+  protected AbstractMarshaller(@NotNull Class<T> token, @Nullable Interner<T> interner) {
     this.token = checkNotNull(token);
+    this.interner = interner;
   }
 
   @Override
@@ -24,6 +36,18 @@ public abstract class AbstractMarshaller<T> implements Marshaller<T> {
     return token;
   }
 
+  public boolean isInterning() {
+    return interner != null;
+  }
+
+  /**
+   * @return the canonical instance for the given value if interning is enabled, else the value
+   *         itself
+   */
+  protected T intern(T val) {
+    return ((interner != null) && (val != null)) ? interner.intern(val) : val;
+  }
+
   @Override
   public Function<T, String> getSerializer() {
     return SERIALIZER;
@@ -0,0 +1,303 @@
+package com.celements.marshalling;
+
+import static com.google.common.base.Preconditions.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+import com.celements.common.reflect.ReflectiveInstanceSupplier;
+import com.google.common.base.Defaults;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+
+/**
+ * Marshals simple value objects field by field. The fields are discovered once on construction
+ * and bound as {@link MethodHandle}s, each property value is marshalled with the registered
+ * {@link Marshaller} for its type. Static and transient fields are ignored.
+ *
+ * Types with mutable fields only are instantiated with their no-arg constructor and populated
+ * through the fields. Types with final fields (e.g. immutable value objects or records) require a
+ * constructor taking all fields in declaration order, which is invoked with the resolved values
+ * and the type defaults for absent ones.
+ *
+ * The serialized form is a list of {@code name=value} pairs separated by {@code ;}, where the
+ * characters {@code \ ; =} are escaped with a backslash. Null values are omitted on serialization
+ * and unknown properties are ignored on resolving.
+ *
+ * <pre>
+ * Marshaller<Person> marshaller = new BeanMarshaller<>(Person.class, ImmutableList.of(
+ *     new DefaultMarshaller(), new EnumMarshaller<>(Gender.class)));
+ * </pre>
+ */
+@Immutable
+public class BeanMarshaller<T> extends AbstractMarshaller<T> {
+
+  private static final char SEPARATOR = ';';
+  private static final char ASSIGNMENT = '=';
+  private static final char ESCAPE = '\\';
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class,
+      Object.class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class,
+      Object[].class);
+
+  /** null if instantiated by {@link #constructor} */
+  private final Supplier<T> instanceSupplier;
+  /** null if instantiated by {@link #instanceSupplier} */
+  private final MethodHandle constructor;
+  private final ImmutableMap<String, Property> properties;
+  private final Property[] propertyArray;
+
+  /**
+   * @throws IllegalArgumentException
+   *           if no marshaller is provided for a field type, a field isn't accessible or the type
+   *           has final fields but no constructor taking all fields
+   */
+  public BeanMarshaller(@NotNull Class<T> token,
+      @NotNull Collection<? extends Marshaller<?>> marshallers) {
+    this(token, null, marshallers);
+  }
+
+  /**
+   * @param instanceSupplier
+   *          supplies the instances to populate, only applicable to types without final fields
+   * @throws IllegalArgumentException
+   *           if no marshaller is provided for a field type, a field isn't accessible or the type
+   *           has final fields
+   */
+  public BeanMarshaller(@NotNull Class<T> token, @Nullable Supplier<T> instanceSupplier,
+      @NotNull Collection<? extends Marshaller<?>> marshallers) {
+    super(token);
+    Map<Class<?>, Marshaller<?>> marshallerMap = new HashMap<>();
+    for (Marshaller<?> marshaller : marshallers) {
+      marshallerMap.put(marshaller.getToken(), marshaller);
+    }
+    List<Field> fields = collectFields(token);
+    boolean immutable = fields.stream().anyMatch(f -> Modifier.isFinal(f.getModifiers()));
+    checkArgument(!immutable || (instanceSupplier == null),
+        "type [%s] has final fields, an instance supplier isn't applicable", token.getName());
+    this.properties = bindProperties(fields, marshallerMap, !immutable);
+    this.propertyArray = properties.values().toArray(new Property[properties.size()]);
+    if (immutable) {
+      this.instanceSupplier = null;
+      this.constructor = bindConstructor(token, fields, propertyArray.length);
+    } else {
+      this.instanceSupplier = (instanceSupplier != null) ? instanceSupplier
+          : new ReflectiveInstanceSupplier<>(token);
+      this.constructor = null;
+    }
+  }
+
+  private static ImmutableMap<String, Property> bindProperties(List<Field> fields,
+      Map<Class<?>, Marshaller<?>> marshallers, boolean withSetters) {
+    Map<String, Property> properties = new LinkedHashMap<>();
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    for (Field field : fields) {
+      Marshaller<?> marshaller = marshallers.get(Primitives.wrap(field.getType()));
+      checkArgument(marshaller != null, "no marshaller for field [%s] of type [%s]",
+          field.getName(), field.getType().getName());
+      try {
+        field.setAccessible(true);
+        properties.putIfAbsent(field.getName(), new Property(properties.size(), field, marshaller,
+            lookup.unreflectGetter(field).asType(GETTER_TYPE),
+            withSetters ? lookup.unreflectSetter(field).asType(SETTER_TYPE) : null));
+      } catch (IllegalAccessException | RuntimeException exc) {
+        throw new IllegalArgumentException("inaccessible field [" + field + "]", exc);
+      }
+    }
+    return ImmutableMap.copyOf(properties);
+  }
+
+  private static MethodHandle bindConstructor(Class<?> token, List<Field> fields,
+      int propertyCount) {
+    checkArgument(fields.size() == propertyCount, "type [%s] has final and shadowed fields",
+        token.getName());
+    Class<?>[] paramTypes = fields.stream().map(Field::getType).toArray(Class<?>[]::new);
+    try {
+      Constructor<?> ctor = token.getDeclaredConstructor(paramTypes);
+      ctor.setAccessible(true);
+      return MethodHandles.lookup().unreflectConstructor(ctor)
+          .asSpreader(Object[].class, paramTypes.length)
+          .asType(CONSTRUCTOR_TYPE);
+    } catch (NoSuchMethodException exc) {
+      throw new IllegalArgumentException("type [" + token.getName() + "] has final fields but no "
+          + "constructor taking all fields " + Arrays.toString(paramTypes), exc);
+    } catch (IllegalAccessException | RuntimeException exc) {
+      throw new IllegalArgumentException("inaccessible constructor of [" + token + "]", exc);
+    }
+  }
+
+  /**
+   * @return the instance fields of the given type, subclass fields first
+   */
+  private static List<Field> collectFields(Class<?> token) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> type = token; (type != null) && (type != Object.class); type = type
+        .getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        int mod = field.getModifiers();
+        if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod) && !field.isSynthetic()) {
+          fields.add(field);
+        }
+      }
+    }
+    return fields;
+  }
+
+  @Override
+  public String serialize(T val) {
+    checkNotNull(val);
+    StringBuilder sb = new StringBuilder();
+    for (Property property : propertyArray) {
+      Object value = property.get(val);
+      if (value != null) {
+        if (sb.length() > 0) {
+          sb.append(SEPARATOR);
+        }
+        escape(property.name, sb);
+        sb.append(ASSIGNMENT);
+        escape(property.marshaller.serialize(value), sb);
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public Optional<T> resolve(String val) {
+    checkNotNull(val);
+    Object[] values = (constructor != null) ? new Object[propertyArray.length] : null;
+    T instance = (instanceSupplier != null) ? instanceSupplier.get() : null;
+    StringBuilder token = new StringBuilder();
+    String name = null;
+    for (int i = 0; i <= val.length(); i++) {
+      char c = (i < val.length()) ? val.charAt(i) : SEPARATOR;
+      if ((c == ESCAPE) && ((i + 1) < val.length())) {
+        token.append(val.charAt(++i));
+      } else if ((c == ASSIGNMENT) && (name == null)) {
+        name = token.toString();
+        token.setLength(0);
+      } else if (c == SEPARATOR) {
+        if (name != null) {
+          resolveProperty(instance, values, name, token.toString());
+        } else if (token.length() > 0) {
+          LOGGER.info("resolve - illegal property [{}] for [{}]", token, val);
+          return Optional.absent();
+        }
+        name = null;
+        token.setLength(0);
+      } else {
+        token.append(c);
+      }
+    }
+    return Optional.of((values != null) ? construct(values) : instance);
+  }
+
+  private void resolveProperty(T instance, Object[] values, String name, String value) {
+    Property property = properties.get(name);
+    if (property != null) {
+      Optional<?> resolved = property.marshaller.resolve(value);
+      if (!resolved.isPresent()) {
+        LOGGER.debug("resolve - unable to resolve [{}] for property [{}]", value, name);
+      } else if (values != null) {
+        values[property.index] = resolved.get();
+      } else {
+        property.set(instance, resolved.get());
+      }
+    } else {
+      LOGGER.debug("resolve - unknown property [{}]", name);
+    }
+  }
+
+  private T construct(Object[] values) {
+    for (Property property : propertyArray) {
+      if (values[property.index] == null) {
+        values[property.index] = Defaults.defaultValue(property.type);
+      }
+    }
+    try {
+      return getToken().cast((Object) constructor.invokeExact(values));
+    } catch (Throwable exc) {
+      Throwables.throwIfUnchecked(exc);
+      throw new IllegalStateException(getToken().getName(), exc);
+    }
+  }
+
+  private static void escape(String str, StringBuilder sb) {
+    int i = 0;
+    while ((i < str.length()) && !isSpecial(str.charAt(i))) {
+      i++;
+    }
+    sb.append(str, 0, i);
+    for (; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (isSpecial(c)) {
+        sb.append(ESCAPE);
+      }
+      sb.append(c);
+    }
+  }
+
+  private static boolean isSpecial(char c) {
+    return (c == ESCAPE) || (c == SEPARATOR) || (c == ASSIGNMENT);
+  }
+
+  @Immutable
+  private static final class Property {
+
+    final int index;
+    final String name;
+    final Class<?> type;
+    final Marshaller<Object> marshaller;
+    final MethodHandle getter;
+    final MethodHandle setter;
+
+    @SuppressWarnings("unchecked")
+    Property(int index, Field field, Marshaller<?> marshaller, MethodHandle getter,
+        MethodHandle setter) {
+      this.index = index;
+      this.name = field.getName();
+      this.type = field.getType();
+      this.marshaller = (Marshaller<Object>) marshaller;
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    Object get(Object bean) {
+      try {
+        return (Object) getter.invokeExact(bean);
+      } catch (Throwable exc) {
+        Throwables.throwIfUnchecked(exc);
+        throw new IllegalStateException(name, exc);
+      }
+    }
+
+    void set(Object bean, Object value) {
+      try {
+        setter.invokeExact(bean, value);
+      } catch (Throwable exc) {
+        Throwables.throwIfUnchecked(exc);
+        throw new IllegalStateException(name, exc);
+      }
+    }
+  }
+
+}
@@ -5,12 +5,28 @@ import static com.google.common.base.Preconditions.*;
 import javax.annotation.concurrent.Immutable;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 @Immutable
 public final class DefaultMarshaller extends AbstractMarshaller<String> {
 
+  /**
+   * shared between all interning instances, weak to allow unused values to be collected
+   */
+  private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
   public DefaultMarshaller() {
-    super(String.class);
+    this(false);
+  }
+
+  /**
+   * @param interning
+   *          if true, equal resolved strings are deduplicated to a single canonical instance. Use
+   *          it for bulk loads of highly repetitive values like space or class names.
+   */
+  public DefaultMarshaller(boolean interning) {
+    super(String.class, interning ? INTERNER : null);
   }
 
   @Override
@@ -20,7 +36,7 @@ public final class DefaultMarshaller extends AbstractMarshaller<String> {
 
   @Override
   public Optional<String> resolve(String val) {
-    return Optional.of(val);
+    return Optional.of(intern(val));
   }
 
 }
@@ -0,0 +1,276 @@
+package com.celements.marshalling;
+
+import static com.google.common.base.Preconditions.*;
+import static java.nio.charset.StandardCharsets.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.concurrent.Immutable;
+import javax.validation.constraints.NotNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+
+/**
+ * Writes and reads files of newline-delimited records, each record being the
+ * {@link Marshaller#serialize} output of a value. Line breaks and backslashes within records are
+ * escaped with a backslash.
+ *
+ * Reading is done through memory-mapped regions of the file and the returned stream is lazy and
+ * splits on line boundaries, thus large files can be decoded in parallel. The returned stream has
+ * to be closed to release the file, e.g. with a try-with-resources statement.
+ */
+@Immutable
+public class MarshallingFileCodec<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MarshallingFileCodec.class);
+
+  private static final char ESCAPE = '\\';
+
+  private final Marshaller<T> marshaller;
+
+  public MarshallingFileCodec(@NotNull Marshaller<T> marshaller) {
+    this.marshaller = checkNotNull(marshaller);
+  }
+
+  @NotNull
+  public Marshaller<T> getMarshaller() {
+    return marshaller;
+  }
+
+  /**
+   * writes the given values as newline-delimited records, by default a present file is truncated
+   */
+  public void write(@NotNull Path file, @NotNull Stream<? extends T> values,
+      @NotNull OpenOption... options) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, UTF_8, options)) {
+      Iterator<? extends T> iter = values.iterator();
+      StringBuilder sb = new StringBuilder();
+      while (iter.hasNext()) {
+        sb.setLength(0);
+        escape(marshaller.serialize(iter.next()), sb);
+        writer.append(sb.append('\n'));
+      }
+    }
+  }
+
+  /**
+   * @return a lazy stream of the resolved records, unresolvable records are skipped
+   * @throws UncheckedIOException
+   *           if an I/O error occurs while consuming the stream
+   */
+  @NotNull
+  public Stream<T> read(@NotNull Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return StreamSupport.stream(new MappedLineSpliterator(channel, 0, channel.size()), false)
+          .onClose(() -> close(channel))
+          .map(this::resolve)
+          .filter(Optional::isPresent)
+          .map(Optional::get);
+    } catch (IOException | RuntimeException exc) {
+      channel.close();
+      throw exc;
+    }
+  }
+
+  private Optional<T> resolve(String line) {
+    Optional<T> value = marshaller.resolve(unescape(line));
+    if (!value.isPresent()) {
+      LOGGER.warn("read - unable to resolve [{}]", line);
+    }
+    return value;
+  }
+
+  private static void close(FileChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException exc) {
+      throw new UncheckedIOException(exc);
+    }
+  }
+
+  static void escape(String str, StringBuilder sb) {
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (c == ESCAPE) {
+        sb.append(ESCAPE).append(ESCAPE);
+      } else if (c == '\n') {
+        sb.append(ESCAPE).append('n');
+      } else if (c == '\r') {
+        sb.append(ESCAPE).append('r');
+      } else {
+        sb.append(c);
+      }
+    }
+  }
+
+  static String unescape(String str) {
+    int idx = str.indexOf(ESCAPE);
+    if (idx < 0) {
+      return str;
+    }
+    StringBuilder sb = new StringBuilder(str.length()).append(str, 0, idx);
+    for (int i = idx; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if ((c == ESCAPE) && ((i + 1) < str.length())) {
+        c = str.charAt(++i);
+        sb.append((c == 'n') ? '\n' : (c == 'r') ? '\r' : c);
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Spliterator over the lines of a file region [pos, end), mapping windows of the file on
+   * traversal. Splitting is done at the first line break after the middle of the region.
+   */
+  static final class MappedLineSpliterator implements Spliterator<String> {
+
+    static final int WINDOW_SIZE = 1 << 26;
+    static final int MIN_SPLIT_SIZE = 1 << 16;
+    private static final int SCAN_SIZE = 1 << 13;
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private long pos;
+    private final long end;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private byte[] bytes = new byte[128];
+
+    MappedLineSpliterator(FileChannel channel, long pos, long end) {
+      this(channel, pos, end, WINDOW_SIZE);
+    }
+
+    MappedLineSpliterator(FileChannel channel, long pos, long end, int windowSize) {
+      this.channel = channel;
+      this.pos = pos;
+      this.end = end;
+      this.windowSize = windowSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+      if (pos >= end) {
+        return false;
+      }
+      try {
+        action.accept(nextLine());
+        return true;
+      } catch (IOException exc) {
+        throw new UncheckedIOException(exc);
+      }
+    }
+
+    private String nextLine() throws IOException {
+      if ((window == null) || (pos < windowStart) || (pos >= (windowStart + window.limit()))) {
+        mapWindow(windowSize);
+      }
+      while (true) {
+        int from = (int) (pos - windowStart);
+        for (int i = from; i < window.limit(); i++) {
+          if (window.get(i) == '\n') {
+            return decodeLine(from, i, 1);
+          }
+        }
+        if ((windowStart + window.limit()) >= end) {
+          return decodeLine(from, window.limit(), 0);
+        }
+        // the line crosses the window boundary, remap from the line start and grow if needed
+        checkState(window.limit() < Integer.MAX_VALUE, "line too long at position %s", pos);
+        mapWindow((from > 0) ? windowSize : Math.min(2L * window.limit(), Integer.MAX_VALUE));
+      }
+    }
+
+    private void mapWindow(long size) throws IOException {
+      window = channel.map(MapMode.READ_ONLY, pos, Math.min(size, end - pos));
+      windowStart = pos;
+    }
+
+    private String decodeLine(int from, int to, int delimiterLength) {
+      int length = to - from;
+      if ((length > 0) && (window.get(to - 1) == '\r')) {
+        length--;
+      }
+      if (bytes.length < length) {
+        bytes = new byte[Math.max(length, 2 * bytes.length)];
+      }
+      ByteBuffer view = window.duplicate();
+      view.position(from);
+      view.get(bytes, 0, length);
+      pos = windowStart + to + delimiterLength;
+      return new String(bytes, 0, length, UTF_8);
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+      if ((end - pos) < MIN_SPLIT_SIZE) {
+        return null;
+      }
+      try {
+        long split = findLineStart(pos + ((end - pos) / 2));
+        if ((split <= pos) || (split >= end)) {
+          return null;
+        }
+        Spliterator<String> prefix = new MappedLineSpliterator(channel, pos, split, windowSize);
+        pos = split;
+        return prefix;
+      } catch (IOException exc) {
+        throw new UncheckedIOException(exc);
+      }
+    }
+
+    /**
+     * @return the position after the first line break at or after the given position
+     */
+    private long findLineStart(long from) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+      for (long offset = from; offset < end; offset += buffer.limit()) {
+        buffer.clear();
+        buffer.limit((int) Math.min(SCAN_SIZE, end - offset));
+        if (channel.read(buffer, offset) < 0) {
+          break;
+        }
+        buffer.flip();
+        for (int i = 0; i < buffer.limit(); i++) {
+          if (buffer.get(i) == '\n') {
+            return offset + i + 1;
+          }
+        }
+      }
+      return end;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - pos;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL;
+    }
+
+  }
+
+}
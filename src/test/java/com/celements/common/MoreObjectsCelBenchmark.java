@@ -0,0 +1,89 @@
+package com.celements.common;
+
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.common.base.Defaults;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+
+/**
+ * Compares {@link MoreObjectsCel#defaultValue(Class)}, resolving its strategy once per class, to
+ * the former implementation resolving it on every call, over a mix of types. Not run as part of
+ * the test suite, run with {@code main} on the test classpath.
+ */
+public class MoreObjectsCelBenchmark {
+
+  private static final int ROUNDS = 5;
+  private static final int ITERATIONS = 1_000_000;
+  private static final Class<?>[] TYPES = { int.class, Integer.class, long.class, String.class,
+      List.class, Set.class, Map.class, Optional.class, Date.class };
+
+  public static void main(String[] args) {
+    for (int round = 1; round <= ROUNDS; round++) {
+      System.out.printf("round %d: cached %.1f ns/op, uncached %.1f ns/op%n", round,
+          measure(MoreObjectsCel::defaultValue), measure(t -> uncachedDefaultValue(t)));
+    }
+  }
+
+  private static double measure(Function<Class<?>, Object> op) {
+    int sink = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (Class<?> type : TYPES) {
+        sink += (op.apply(type) != null) ? 1 : 0;
+      }
+    }
+    long nanos = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.print("");
+    }
+    return (double) nanos / ITERATIONS / TYPES.length;
+  }
+
+  /**
+   * the former implementation of {@link MoreObjectsCel#defaultValue(Class)}
+   */
+  private static <T> T uncachedDefaultValue(Class<T> type) {
+    T value = (type != null) ? Defaults.defaultValue(Primitives.unwrap(type)) : null;
+    if (value != null) {
+      return value;
+    } else if (String.class.equals(type)) {
+      return type.cast("");
+    } else if (type == null) {
+      return null;
+    }
+    Object ret = null;
+    if (List.class.isAssignableFrom(type)) {
+      ret = ImmutableList.of();
+    } else if (Set.class.isAssignableFrom(type)) {
+      ret = ImmutableSet.of();
+    } else if (Queue.class.isAssignableFrom(type)) {
+      ret = new LinkedList<>();
+    } else if (Iterable.class.isAssignableFrom(type)) {
+      ret = ImmutableList.of();
+    } else if (Properties.class.isAssignableFrom(type)) {
+      ret = new Properties();
+    } else if (Map.class.isAssignableFrom(type)) {
+      ret = ImmutableMap.of();
+    } else if (Stream.class.isAssignableFrom(type)) {
+      ret = Stream.empty();
+    } else if (Optional.class.isAssignableFrom(type)) {
+      ret = Optional.empty();
+    } else if (com.google.common.base.Optional.class.isAssignableFrom(type)) {
+      ret = com.google.common.base.Optional.absent();
+    }
+    return type.cast(ret);
+  }
+
+}
@@ -0,0 +1,298 @@
+package com.celements.common;
+
+import static com.celements.common.MoreObjectsCel.*;
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.celements.common.lambda.Try;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+public class MoreObjectsCelTest {
+
+  private final List<String> list = ImmutableList.of("a", "b", "c");
+
+  @Test
+  public void test_defaultValue() {
+    assertEquals(0, (int) defaultValue(int.class));
+    assertEquals(Integer.valueOf(0), defaultValue(Integer.class));
+    assertEquals(Boolean.FALSE, defaultValue(Boolean.class));
+    assertEquals("", defaultValue(String.class));
+    assertEquals(ImmutableList.of(), defaultValue(List.class));
+    assertEquals(ImmutableList.of(), defaultValue(Iterable.class));
+    assertEquals(Optional.empty(), defaultValue(Optional.class));
+    assertNull(defaultValue(Object.class));
+    assertNull(defaultValue(null));
+  }
+
+  @Test
+  public void test_defaultValue_mutable() {
+    List<?> value = defaultMutableValue(List.class);
+    assertTrue(value instanceof ArrayList);
+    assertNotSame(value, defaultMutableValue(List.class));
+    assertTrue(defaultMutableValue(Map.class) instanceof LinkedHashMap);
+    assertNotSame(defaultValue(Stream.class), defaultValue(Stream.class));
+  }
+
+  @Test
+  public void test_defaultValueNonNullable() {
+    assertNull(defaultValueNonNullable(Integer.class));
+    assertNull(defaultValueNonNullable(String.class));
+    assertEquals(ImmutableSet.of(), defaultValueNonNullable(Set.class));
+    assertTrue(defaultMutableValueNonNullable(Set.class) instanceof LinkedHashSet);
+  }
+
+  @Test
+  public void test_stream() {
+    assertEquals(list, stream(list).collect(toList()));
+    assertEquals(list, stream(list.stream()).collect(toList()));
+    assertEquals(list, stream(list.spliterator()).collect(toList()));
+    assertEquals(list, stream(list.iterator()).collect(toList()));
+    assertEquals(list, stream((Iterable<String>) list::iterator).collect(toList()));
+    assertEquals(list, stream(list.toArray()).collect(toList()));
+    assertEquals(ImmutableList.of("a"), stream(Optional.of("a")).collect(toList()));
+    assertEquals(ImmutableList.of("a"), stream(com.google.common.base.Optional.of("a"))
+        .collect(toList()));
+    assertEquals(ImmutableList.of("a"), stream("a").collect(toList()));
+    assertEquals(0, stream(null).count());
+    assertEquals(0, stream(Optional.empty()).count());
+  }
+
+  @Test
+  public void test_stream_sizeEstimate() {
+    List<Integer> ints = IntStream.range(0, 1000).boxed().collect(toList());
+    assertEquals(ints, stream(ints.iterator(), ints.size()).parallel().collect(toList()));
+    assertEquals(ints, stream((Iterable<Integer>) ints::iterator, 10).parallel()
+        .collect(toList()));
+    assertEquals(list, stream(list, 10).collect(toList()));
+  }
+
+  @Test
+  public void test_stream_map() {
+    Map<String, Integer> map = ImmutableMap.of("a", 1, "b", 2);
+    assertEquals(ImmutableList.of(Maps.immutableEntry("a", 1), Maps.immutableEntry("b", 2)),
+        stream(map).collect(toList()));
+  }
+
+  @Test
+  public void test_stream_primitiveArrays() {
+    assertEquals(ImmutableList.of(1, 2), stream(new int[] { 1, 2 }).collect(toList()));
+    assertEquals(ImmutableList.of(1L, 2L), stream(new long[] { 1, 2 }).collect(toList()));
+    assertEquals(ImmutableList.of(1d, 2d), stream(new double[] { 1, 2 }).collect(toList()));
+    byte[] bytes = new byte[] { 1, 2 };
+    assertEquals(ImmutableList.of(bytes), stream(bytes).collect(toList()));
+  }
+
+  @Test
+  public void test_primitiveStreams() {
+    assertEquals(3, intStream(new int[] { 1, 2 }).sum());
+    assertEquals(3, intStream(ImmutableList.of(1L, 2L)).sum());
+    assertEquals(3L, longStream(new long[] { 1, 2 }).sum());
+    assertEquals(3L, longStream(Arrays.asList(1, 2)).sum());
+    assertEquals(3d, doubleStream(new double[] { 1, 2 }).sum(), 0);
+    assertEquals(0, intStream(null).count());
+  }
+
+  @Test
+  public void test_getAssignableUtilClasses() {
+    assertEquals(ImmutableList.of(List.class, Collection.class, Iterable.class),
+        getAssignableUtilClasses(new ArrayList<>()));
+    assertEquals(ImmutableList.of(Map.class), getAssignableUtilClasses(new LinkedHashMap<>()));
+    assertEquals(ImmutableList.of(), getAssignableUtilClasses("a"));
+    assertEquals(ImmutableList.of(), getAssignableUtilClasses(null));
+  }
+
+  @Test
+  public void test_findAssignableUtilClasses() {
+    assertEquals(ImmutableList.of(Set.class, Collection.class, Iterable.class),
+        findAssignableUtilClasses(new LinkedHashSet<>()).collect(toList()));
+    assertEquals(0, findAssignableUtilClasses(null).count());
+  }
+
+  @Test
+  public void test_instancesOf() {
+    assertEquals(ImmutableList.of("a", "b"), instancesOf(Stream.of("a", 1, "b", 2L), String.class)
+        .collect(toList()));
+  }
+
+  @Test
+  public void test_partitionByType() {
+    ImmutableListMultimap<Class<?>, Object> byType = IntStream.range(0, 1000).boxed()
+        .map(i -> ((i % 3) == 0) ? Integer.toString(i) : ((i % 3) == 1) ? i : (long) i)
+        .parallel()
+        .collect(partitionByType(String.class, Number.class, Integer.class));
+    assertEquals(334, byType.get(String.class).size());
+    assertEquals(666, byType.get(Number.class).size());
+    assertEquals(0, byType.get(Integer.class).size());
+    assertEquals(IntStream.range(0, 1000).filter(i -> (i % 3) == 0).mapToObj(Integer::toString)
+        .collect(toList()), byType.get(String.class));
+  }
+
+  @Test
+  public void test_streamAll() {
+    assertEquals(ImmutableList.of("a", "b", "c", "d", "e", 1), streamAll(list, null,
+        Stream.of("d"), Optional.of("e"), 1).collect(toList()));
+    assertEquals(0, streamAll().count());
+    assertEquals(0, streamAll((Object[]) null).count());
+  }
+
+  @Test
+  public void test_streamAll_many() {
+    List<List<Integer>> sources = IntStream.range(0, 10000)
+        .mapToObj(i -> ImmutableList.of(2 * i, (2 * i) + 1))
+        .collect(toList());
+    List<Integer> expected = IntStream.range(0, 20000).boxed().collect(toList());
+    assertEquals(expected, streamAll(sources).collect(toList()));
+    assertEquals(expected, streamAll(sources).parallel().collect(toList()));
+  }
+
+  @Test
+  public void test_streamAll_lazy() {
+    AtomicInteger opened = new AtomicInteger();
+    Iterable<String> source = () -> {
+      opened.incrementAndGet();
+      return list.iterator();
+    };
+    Stream<String> stream = streamAll(source, source, source);
+    assertEquals(0, opened.get());
+    assertEquals(ImmutableList.of("a", "b", "c", "a"), stream.limit(4).collect(toList()));
+    assertEquals(2, opened.get());
+  }
+
+  @Test
+  public void test_streamAll_close() {
+    AtomicInteger closed = new AtomicInteger();
+    Stream<String> stream = streamAll(list.stream().onClose(closed::incrementAndGet), list,
+        Stream.empty().onClose(closed::incrementAndGet));
+    assertEquals(6, stream.count());
+    stream.close();
+    assertEquals(2, closed.get());
+  }
+
+  @Test
+  public void test_mergeSorted() {
+    assertEquals(ImmutableList.of(1, 2, 3, 4, 5, 6, 7), mergeSorted(
+        Comparator.<Integer>naturalOrder(), ImmutableList.of(1, 4, 7), null, Stream.of(2, 5),
+        new int[] { 3, 6 }).collect(toList()));
+    assertEquals(0, mergeSorted(Comparator.naturalOrder()).count());
+  }
+
+  @Test
+  public void test_mergeSorted_stable() {
+    Comparator<String> byLength = Comparator.comparingInt(String::length);
+    assertEquals(ImmutableList.of("a", "b", "c", "aa", "bb"), mergeSorted(byLength,
+        ImmutableList.of("a", "aa"), ImmutableList.of("b", "bb"), ImmutableList.of("c"))
+            .collect(toList()));
+  }
+
+  @Test
+  public void test_mergeSorted_lazy() {
+    AtomicInteger pulled = new AtomicInteger();
+    List<Integer> result = mergeSorted(Comparator.<Integer>reverseOrder(),
+        IntStream.iterate(1000, i -> i - 2).limit(500).boxed().peek(i -> pulled.incrementAndGet()),
+        IntStream.iterate(999, i -> i - 2).limit(500).boxed().peek(i -> pulled.incrementAndGet()))
+        .limit(3).collect(toList());
+    assertEquals(ImmutableList.of(1000, 999, 998), result);
+    assertTrue(pulled.get() <= 5);
+  }
+
+  @Test
+  public void test_mergeSorted_estimateSize_unknown() {
+    Spliterator<Integer> spliterator = mergeSorted(Comparator.<Integer>naturalOrder(),
+        ImmutableList.of(1, 3).iterator(), ImmutableList.of(2, 4).iterator()).spliterator();
+    assertTrue(spliterator.tryAdvance(i -> {}));
+    assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+    spliterator = mergeSorted(Comparator.<Integer>naturalOrder(),
+        ImmutableList.of(1, 2).iterator()).spliterator();
+    assertTrue(spliterator.tryAdvance(i -> {}));
+    assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+  }
+
+  @Test
+  public void test_batches() {
+    AtomicInteger closed = new AtomicInteger();
+    Stream<List<Integer>> batches = batches(Stream.of(1, 2, 3).onClose(closed::incrementAndGet),
+        2);
+    assertEquals(ImmutableList.of(ImmutableList.of(1, 2), ImmutableList.of(3)),
+        batches.collect(toList()));
+    batches.close();
+    assertEquals(1, closed.get());
+  }
+
+  @Test
+  public void test_mapConcurrent() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Try<Integer, InterruptedException>> results = mapConcurrent(
+        IntStream.range(0, 100).boxed(), i -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(100 - i);
+          running.decrementAndGet();
+          return i * 2;
+        }, 4).collect(toList());
+    assertEquals(IntStream.range(0, 100).mapToObj(i -> i * 2).collect(toList()),
+        results.stream().flatMap(Try::stream).collect(toList()));
+    assertTrue(maxRunning.get() <= 4);
+  }
+
+  @Test
+  public void test_mapConcurrent_close() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Stream<Try<Integer, InterruptedException>> stream = mapConcurrent(Stream.of(0, 1), i -> {
+        if (i > 0) {
+          started.countDown();
+        }
+        try {
+          Thread.sleep(i * 10_000);
+        } catch (InterruptedException exc) {
+          interrupted.countDown();
+          throw exc;
+        }
+        return i;
+      }, 2, executor);
+      assertEquals(Try.success(0), stream.iterator().next());
+      assertTrue(started.await(1, TimeUnit.SECONDS));
+      stream.close();
+      assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test_mapConcurrent_failure() {
+    List<Try<Integer, RuntimeException>> results = mapConcurrent(Stream.of("1", "x", "3"),
+        s -> Integer.valueOf(s), 2).collect(toList());
+    assertEquals(Try.success(1), results.get(0));
+    assertTrue(results.get(1).getException().get() instanceof NumberFormatException);
+    assertEquals(Try.success(3), results.get(2));
+  }
+
+}
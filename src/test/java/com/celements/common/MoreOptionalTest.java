@@ -0,0 +1,141 @@
+package com.celements.common;
+
+import static com.celements.common.MoreOptional.*;
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+public class MoreOptionalTest {
+
+  @Test
+  public void test_findFirstPresent() {
+    assertEquals(Optional.of("b"), findFirstPresent(Optional::empty, () -> Optional.of("b"),
+        () -> Optional.of("c")));
+    assertEquals(Optional.empty(), findFirstPresent(Optional::empty));
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent() {
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(200, Optional.empty()), delayed(200, Optional.of("b")),
+        delayed(200, Optional.of("c")), delayed(5000, Optional.of("d")));
+    assertEquals(Optional.of("b"), findFirstPresentConcurrent(Duration.ZERO,
+        Duration.ofSeconds(5), suppliers));
+    assertTrue(stopwatch.elapsed(TimeUnit.MILLISECONDS) < 1000);
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_priority() {
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(300, Optional.of("a")), delayed(0, Optional.of("b")));
+    assertEquals(Optional.of("a"), findFirstPresentConcurrent(Duration.ZERO,
+        Duration.ofSeconds(5), suppliers));
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_staggered() {
+    AtomicInteger started = new AtomicInteger();
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(50, Optional.of("a")), () -> {
+          started.incrementAndGet();
+          return Optional.of("b");
+        });
+    assertEquals(Optional.of("a"), findFirstPresentConcurrent(Duration.ofSeconds(5),
+        Duration.ofSeconds(5), suppliers));
+    assertEquals(0, started.get());
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_staggered_emptyStartsNext() {
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(0, Optional.empty()), delayed(0, Optional.of("b")));
+    assertEquals(Optional.of("b"), findFirstPresentConcurrent(Duration.ofSeconds(5),
+        Duration.ofSeconds(5), suppliers));
+    assertTrue(stopwatch.elapsed(TimeUnit.MILLISECONDS) < 1000);
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_staggered_emptyBeforeAllStarted() {
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(10, Optional.empty()), delayed(100, Optional.empty()),
+        delayed(0, Optional.of("c")));
+    assertEquals(Optional.of("c"), findFirstPresentConcurrent(Duration.ofSeconds(1),
+        Duration.ofSeconds(5), suppliers));
+    assertTrue(stopwatch.elapsed(TimeUnit.MILLISECONDS) < 1000);
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_timeout() {
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(5000, Optional.of("a")), delayed(0, Optional.of("b")));
+    assertEquals(Optional.of("b"), findFirstPresentConcurrent(Duration.ZERO,
+        Duration.ofMillis(100), suppliers));
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_interrupted() {
+    Thread caller = Thread.currentThread();
+    Thread interrupter = new Thread(() -> {
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException exc) {
+        return;
+      }
+      caller.interrupt();
+    });
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(5000, Optional.of("a")), delayed(0, Optional.of("b")));
+    interrupter.start();
+    try {
+      assertEquals(Optional.of("b"), findFirstPresentConcurrent(Duration.ZERO,
+          Duration.ofSeconds(5), suppliers));
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      interrupter.interrupt();
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_failure() {
+    List<Supplier<Optional<String>>> suppliers = ImmutableList.of(
+        delayed(0, Optional.empty()), () -> {
+          throw new IllegalStateException();
+        }, delayed(0, Optional.of("c")));
+    assertThrows(IllegalStateException.class, () -> findFirstPresentConcurrent(Duration.ZERO,
+        Duration.ofSeconds(5), suppliers));
+  }
+
+  @Test
+  public void test_findFirstPresentConcurrent_empty() {
+    assertEquals(Optional.empty(), findFirstPresentConcurrent(Duration.ZERO,
+        Duration.ofSeconds(5), ImmutableList.<Supplier<Optional<String>>>of(Optional::empty)));
+    assertEquals(Optional.empty(), findFirstPresentConcurrent(Duration.ZERO,
+        Duration.ofSeconds(5), ImmutableList.<Supplier<Optional<String>>>of()));
+  }
+
+  private static Supplier<Optional<String>> delayed(long millis, Optional<String> result) {
+    return () -> {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException exc) {
+        Thread.currentThread().interrupt();
+      }
+      return result;
+    };
+  }
+
+}
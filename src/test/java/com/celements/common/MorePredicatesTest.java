@@ -0,0 +1,116 @@
+package com.celements.common;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.hash.Funnels;
+
+public class MorePredicatesTest {
+
+  @Test
+  public void test_mightContain() {
+    Set<String> keys = IntStream.range(0, 10_000).mapToObj(i -> "key" + i)
+        .collect(Collectors.toSet());
+    Predicate<String> pred = MorePredicates.mightContain(keys, 0.01);
+    assertTrue(keys.stream().allMatch(pred));
+    long falsePositives = IntStream.range(10_000, 20_000).mapToObj(i -> "key" + i)
+        .filter(pred).count();
+    assertTrue(falsePositives < 300);
+    assertEquals(0, IntStream.range(10_000, 20_000).mapToObj(i -> "key" + i)
+        .filter(pred.and(keys::contains)).count());
+  }
+
+  @Test
+  public void test_mightContain_stream() {
+    Predicate<Integer> pred = MorePredicates.mightContain(Funnels.integerFunnel(),
+        IntStream.range(0, 1000).boxed().parallel(), 1000, 0.001);
+    assertTrue(IntStream.range(0, 1000).boxed().allMatch(pred));
+  }
+
+  @Test
+  public void test_mightContain_empty() {
+    Predicate<String> pred = MorePredicates.mightContain(Collections.emptySet(), 0.01);
+    assertFalse(pred.test(""));
+  }
+
+  @Test
+  public void test_distinctBy_window() {
+    Predicate<String> pred = MorePredicates.distinctBy(String::length, 2);
+    assertTrue(pred.test("a"));
+    assertFalse(pred.test("b"));
+    assertTrue(pred.test("bb"));
+    assertTrue(pred.test("ccc"));
+    assertFalse(pred.test("ddd"));
+    assertTrue(pred.test("e"));
+  }
+
+  @Test
+  public void test_distinctBy_nullKey() {
+    Predicate<String> pred = MorePredicates.distinctBy(str -> null, 10);
+    assertTrue(pred.test("a"));
+    assertFalse(pred.test("b"));
+  }
+
+  @Test
+  public void test_distinctBy_parallel() {
+    assertEquals(1000, IntStream.range(0, 100_000).parallel().boxed()
+        .filter(MorePredicates.distinctBy(i -> i % 1000, 1000))
+        .count());
+  }
+
+  @Test
+  public void test_distinctBy_bloomFilter() {
+    Predicate<Integer> pred = MorePredicates.distinctBy(i -> i % 10_000,
+        Funnels.integerFunnel(), 10_000, 0.01);
+    long distinct = IntStream.range(0, 50_000).parallel().boxed().filter(pred).count();
+    assertTrue(distinct <= 10_000);
+    assertTrue(distinct > 9_500);
+    assertFalse(pred.test(42));
+  }
+
+  @Test
+  public void test_distinctBy_bloomFilter_racingDuplicates() throws Exception {
+    int keys = 2000;
+    Predicate<Integer> pred = MorePredicates.distinctBy(i -> i, Funnels.integerFunnel(), keys,
+        0.001);
+    AtomicInteger accepted = new AtomicInteger();
+    CyclicBarrier barrier = new CyclicBarrier(4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < keys; i++) {
+            barrier.await();
+            if (pred.test(i)) {
+              accepted.incrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(accepted.get() <= keys);
+  }
+
+}
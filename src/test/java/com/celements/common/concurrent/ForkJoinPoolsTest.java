@@ -0,0 +1,58 @@
+package com.celements.common.concurrent;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.celements.common.concurrent.ForkJoinPools.Workload;
+
+public class ForkJoinPoolsTest {
+
+  private static final String POOL_NAME = "test-pool";
+
+  @After
+  public void tearDown() {
+    ForkJoinPools.shutdown(POOL_NAME);
+  }
+
+  @Test
+  public void test_getPool() {
+    ForkJoinPool pool = ForkJoinPools.getPool(POOL_NAME, 2);
+    assertSame(pool, ForkJoinPools.getPool(POOL_NAME, Workload.IO));
+    assertEquals(2, pool.getParallelism());
+    assertEquals(2, ForkJoinPools.getMetrics().get(POOL_NAME).getParallelism());
+  }
+
+  @Test
+  public void test_execute() {
+    ForkJoinPool pool = ForkJoinPools.getPool(POOL_NAME, Workload.BATCH);
+    Set<String> threadNames = ForkJoinPools.execute(pool, () -> IntStream.range(0, 10000)
+        .parallel()
+        .mapToObj(i -> Thread.currentThread().getName())
+        .collect(toSet()));
+    assertTrue(threadNames.toString(), threadNames.stream()
+        .allMatch(name -> name.startsWith(POOL_NAME)));
+  }
+
+  @Test
+  public void test_execute_exception() {
+    ForkJoinPool pool = ForkJoinPools.getPool(POOL_NAME, Workload.LATENCY);
+    assertThrows(IllegalStateException.class, () -> ForkJoinPools.execute(pool, () -> {
+      throw new IllegalStateException();
+    }));
+  }
+
+  @Test
+  public void test_workload() {
+    for (Workload workload : Workload.values()) {
+      assertTrue(workload.getDefaultParallelism() > 0);
+    }
+  }
+
+}
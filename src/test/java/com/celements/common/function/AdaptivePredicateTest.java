@@ -0,0 +1,77 @@
+package com.celements.common.function;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.celements.common.MorePredicates;
+import com.google.common.collect.ImmutableList;
+
+public class AdaptivePredicateTest {
+
+  @Test
+  public void test_allOf() {
+    Predicate<Integer> pred = MorePredicates.allOf(i -> i > 0, i -> (i % 2) == 0);
+    assertTrue(pred.test(2));
+    assertFalse(pred.test(3));
+    assertFalse(pred.test(-2));
+    assertTrue(MorePredicates.allOf().test(1));
+  }
+
+  @Test
+  public void test_anyOf() {
+    Predicate<Integer> pred = MorePredicates.anyOf(i -> i > 0, i -> (i % 2) == 0);
+    assertTrue(pred.test(-2));
+    assertTrue(pred.test(3));
+    assertFalse(pred.test(-3));
+    assertFalse(MorePredicates.anyOf().test(1));
+  }
+
+  @Test
+  public void test_sample_result() {
+    AdaptivePredicate<Integer> pred = new AdaptivePredicate<>(true, ImmutableList.of(
+        (Integer i) -> i > 0, (Integer i) -> (i % 2) == 0), 1, 1);
+    assertEquals(IntStream.range(-5, 5).filter(i -> (i > 0) && ((i % 2) == 0)).count(),
+        IntStream.range(-5, 5).boxed().filter(pred).count());
+  }
+
+  @Test
+  public void test_reorder_allOf() {
+    Predicate<Integer> expensive = i -> spin() && (i != 0);
+    Predicate<Integer> selective = i -> (i % 10) == 0;
+    AdaptivePredicate<Integer> pred = new AdaptivePredicate<>(true,
+        Arrays.asList(expensive, selective), 1, 16);
+    IntStream.range(1, 17).boxed().forEach(pred::test);
+    assertEquals(ImmutableList.of(selective, expensive), pred.getPredicates());
+  }
+
+  @Test
+  public void test_reorder_anyOf() {
+    Predicate<Integer> expensive = i -> spin() && (i == 0);
+    Predicate<Integer> selective = i -> (i % 10) != 0;
+    AdaptivePredicate<Integer> pred = new AdaptivePredicate<>(false,
+        Arrays.asList(expensive, selective), 1, 16);
+    IntStream.range(1, 17).boxed().forEach(pred::test);
+    assertEquals(ImmutableList.of(selective, expensive), pred.getPredicates());
+  }
+
+  @Test
+  public void test_illegalIntervals() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new AdaptivePredicate<>(true, ImmutableList.of(), 3, 16));
+    assertThrows(IllegalArgumentException.class,
+        () -> new AdaptivePredicate<>(true, ImmutableList.of(), 32, 16));
+  }
+
+  private static boolean spin() {
+    long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(100);
+    while (System.nanoTime() < end) {}
+    return true;
+  }
+
+}
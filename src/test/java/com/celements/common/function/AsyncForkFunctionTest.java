@@ -0,0 +1,109 @@
+package com.celements.common.function;
+
+import static com.celements.common.MoreFunctions.*;
+import static org.junit.Assert.*;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncForkFunctionTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void test_apply() throws Exception {
+    Thread caller = Thread.currentThread();
+    AsyncForkFunction<Integer, String> func = fork((Integer i) -> i > 0,
+        i -> (Thread.currentThread() != caller) + ":" + i,
+        i -> (Thread.currentThread() != caller) + ":" + i)
+            .async(executor, null, 2);
+    assertEquals(Optional.of("true:1"), func.apply(1).get(1, TimeUnit.SECONDS));
+    CompletableFuture<Optional<String>> inline = func.apply(-1);
+    assertTrue(inline.isDone());
+    assertEquals(Optional.of("false:-1"), inline.get());
+  }
+
+  @Test
+  public void test_apply_noElse() throws Exception {
+    AsyncForkFunction<Integer, Integer> func = fork((Integer i) -> i > 0, i -> i)
+        .async(executor, executor, 1);
+    assertEquals(Optional.empty(), func.apply(-1).get());
+  }
+
+  @Test
+  public void test_apply_failure() {
+    Function<Integer, Integer> failing = i -> {
+      throw new IllegalStateException();
+    };
+    AsyncForkFunction<Integer, Integer> func = fork((Integer i) -> i > 0, failing, failing)
+        .async(executor, null, 1);
+    ExecutionException exc = assertThrows(ExecutionException.class,
+        () -> func.apply(1).get(1, TimeUnit.SECONDS));
+    assertTrue(exc.getCause() instanceof IllegalStateException);
+    assertTrue(func.apply(-1).isCompletedExceptionally());
+  }
+
+  @Test
+  public void test_apply_boundedInFlight() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicInteger started = new AtomicInteger();
+    AsyncForkFunction<Integer, Integer> func = fork((Integer i) -> true, i -> {
+      started.incrementAndGet();
+      try {
+        latch.await();
+      } catch (InterruptedException exc) {
+        throw new IllegalStateException(exc);
+      }
+      return i;
+    }).async(executor, null, 2);
+    func.apply(1);
+    func.apply(2);
+    assertEquals(2, func.getInFlightCount());
+    CompletableFuture<CompletableFuture<Optional<Integer>>> third = CompletableFuture
+        .supplyAsync(() -> func.apply(3));
+    Thread.sleep(50);
+    assertFalse(third.isDone());
+    latch.countDown();
+    assertEquals(Optional.of(3), third.get(1, TimeUnit.SECONDS).get(1, TimeUnit.SECONDS));
+    assertEquals(3, started.get());
+  }
+
+  @Test
+  public void test_apply_chainedInCallback() throws Exception {
+    AsyncForkFunction<Integer, Integer> func = fork((Integer i) -> true, (Integer i) -> i + 1)
+        .async(executor, null, 1);
+    CompletableFuture<Optional<Integer>> chained = func.apply(1)
+        .thenCompose(result -> func.apply(result.get()))
+        .thenCompose(result -> func.apply(result.get()));
+    assertEquals(Optional.of(4), chained.get(1, TimeUnit.SECONDS));
+    assertEquals(0, func.getInFlightCount());
+  }
+
+  @Test
+  public void test_illegalMaxInFlight() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ForkFunction<Integer, Integer>().async(executor, null, 0));
+  }
+
+}
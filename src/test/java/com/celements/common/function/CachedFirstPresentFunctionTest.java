@@ -0,0 +1,87 @@
+package com.celements.common.function;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+public class CachedFirstPresentFunctionTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final Map<String, String> user = new ConcurrentHashMap<>();
+  private final Map<String, String> space = new ConcurrentHashMap<>();
+  private long nanos;
+  private CachedFirstPresentFunction<String, String> func;
+
+  @Before
+  public void setUp() throws Exception {
+    func = new CachedFirstPresentFunction<>(ImmutableList.of(lookup(user), lookup(space),
+        key -> Optional.of("default")), Duration.ofMinutes(1), 100, new Ticker() {
+
+          @Override
+          public long read() {
+            return nanos;
+          }
+        });
+  }
+
+  @Test
+  public void test_apply() {
+    space.put("key", "space");
+    assertEquals(Optional.of("space"), func.apply("key"));
+    assertEquals(Optional.of("space"), func.apply("key"));
+    assertEquals(2, calls.get());
+    assertEquals(OptionalInt.of(1), func.getWinner("key"));
+  }
+
+  @Test
+  public void test_apply_default() {
+    assertEquals(Optional.of("default"), func.apply("key"));
+    assertEquals(OptionalInt.of(2), func.getWinner("key"));
+  }
+
+  @Test
+  public void test_apply_expired_winnerFirst() {
+    space.put("key", "space");
+    assertEquals(Optional.of("space"), func.apply("key"));
+    user.put("key", "user");
+    space.put("key", "space2");
+    nanos += TimeUnit.MINUTES.toNanos(2);
+    calls.set(0);
+    assertEquals(Optional.of("space2"), func.apply("key"));
+    assertEquals(1, calls.get());
+    func.invalidate("key");
+    assertEquals(Optional.of("user"), func.apply("key"));
+    assertEquals(OptionalInt.of(0), func.getWinner("key"));
+  }
+
+  @Test
+  public void test_apply_expired_winnerEmpty() {
+    space.put("key", "space");
+    assertEquals(Optional.of("space"), func.apply("key"));
+    space.clear();
+    nanos += TimeUnit.MINUTES.toNanos(2);
+    assertEquals(Optional.of("default"), func.apply("key"));
+    assertEquals(OptionalInt.of(2), func.getWinner("key"));
+  }
+
+  private Function<String, Optional<String>> lookup(Map<String, String> map) {
+    return key -> {
+      calls.incrementAndGet();
+      return Optional.ofNullable(map.get(key));
+    };
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.celements.common.function;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.celements.common.MoreFunctions;
+import com.google.common.collect.ImmutableSet;
+
+public class ForkCollectorTest {
+
+  @Test
+  public void test_collect() {
+    Map.Entry<List<Integer>, Long> result = IntStream.range(0, 10).boxed()
+        .collect(MoreFunctions.fork(i -> (i % 2) == 0, toList(), counting()));
+    assertEquals(Arrays.asList(0, 2, 4, 6, 8), result.getKey());
+    assertEquals(5L, (long) result.getValue());
+  }
+
+  @Test
+  public void test_collect_merger() {
+    String result = IntStream.range(0, 5).boxed()
+        .collect(ForkCollector.of(i -> i < 2, summingInt(i -> i), counting(),
+            (sum, count) -> sum + "/" + count));
+    assertEquals("1/3", result);
+  }
+
+  @Test
+  public void test_collect_nullPredicate() {
+    Map.Entry<Long, Long> result = IntStream.range(0, 3).boxed()
+        .collect(MoreFunctions.fork(null, counting(), counting()));
+    assertEquals(3L, (long) result.getKey());
+    assertEquals(0L, (long) result.getValue());
+  }
+
+  @Test
+  public void test_collect_parallel() {
+    Map.Entry<List<Integer>, Set<Integer>> result = IntStream.range(0, 10_000).boxed()
+        .parallel().collect(MoreFunctions.fork(i -> i < 5_000, toList(), toSet()));
+    assertEquals(5_000, result.getKey().size());
+    for (int i = 0; i < 5_000; i++) {
+      assertEquals(i, (int) result.getKey().get(i));
+    }
+    assertEquals(5_000, result.getValue().size());
+  }
+
+  @Test
+  public void test_characteristics() {
+    assertEquals(ImmutableSet.of(Collector.Characteristics.UNORDERED),
+        ForkCollector.of(null, toSet(), toSet(), (a, b) -> a).characteristics());
+    assertEquals(ImmutableSet.of(), ForkCollector.of(null, toList(), toSet(), (a, b) -> a)
+        .characteristics());
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.celements.common.function;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ForkPredicateTest {
+
+  private final List<Integer> input = ImmutableList.of(1, 2, 3, 4, 5, 6);
+
+  @Test
+  public void test_forkPredicate() {
+    StringBuilder sb = new StringBuilder();
+    assertEquals(ImmutableList.of(2, 4, 6), input.stream()
+        .filter(new ForkPredicate<Integer>()
+            .when(i -> (i % 2) == 0)
+            .thenDo(sb::append)
+            .elseDo(i -> sb.append('-')))
+        .collect(toList()));
+    assertEquals("-2-4-6", sb.toString());
+  }
+
+}
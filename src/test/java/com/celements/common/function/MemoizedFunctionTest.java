@@ -0,0 +1,137 @@
+package com.celements.common.function;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.celements.common.MoreFunctions;
+import com.celements.common.MorePredicates;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+
+public class MemoizedFunctionTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void test_apply() {
+    MemoizedFunction<Integer, Integer> func = MoreFunctions.memoize(this::square, 10);
+    assertEquals(4, (int) func.apply(2));
+    assertEquals(4, (int) func.apply(2));
+    assertEquals(9, (int) func.apply(3));
+    assertEquals(2, calls.get());
+    func.invalidate(2);
+    assertEquals(4, (int) func.apply(2));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void test_apply_null() {
+    MemoizedFunction<Integer, Integer> func = MoreFunctions.memoize(i -> {
+      calls.incrementAndGet();
+      return null;
+    }, 10, Duration.ofMinutes(1));
+    assertNull(func.apply(1));
+    assertNull(func.apply(1));
+    assertNull(func.apply(null));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void test_apply_bounded() {
+    MemoizedFunction<Integer, Integer> func = MoreFunctions.memoize(this::square, 10);
+    for (int i = 0; i < 100; i++) {
+      func.apply(i);
+    }
+    assertTrue(func.size() <= 10);
+  }
+
+  @Test
+  public void test_apply_exception() {
+    MemoizedFunction<Integer, Integer> func = MoreFunctions.memoize(i -> 1 / i,
+        CacheBuilder.newBuilder().weakKeys());
+    assertThrows(ArithmeticException.class, () -> func.apply(0));
+  }
+
+  @Test
+  public void test_apply_concurrent() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    MemoizedFunction<Integer, Integer> func = MoreFunctions.memoize(i -> {
+      try {
+        latch.await();
+      } catch (InterruptedException exc) {
+        throw new IllegalStateException(exc);
+      }
+      return square(i);
+    }, 10);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<?>[] futures = new Future<?>[4];
+      for (int i = 0; i < futures.length; i++) {
+        futures[i] = executor.submit(() -> func.apply(5));
+      }
+      Thread.sleep(20);
+      latch.countDown();
+      for (Future<?> future : futures) {
+        assertEquals(25, future.get(1, TimeUnit.SECONDS));
+      }
+      assertEquals(1, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test_predicate() {
+    Predicate<Integer> pred = MorePredicates.memoize(i -> square(i) > 10, 10);
+    assertFalse(pred.test(3));
+    assertTrue(pred.test(4));
+    assertTrue(pred.test(4));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void test_predicate_ttl() {
+    Predicate<Integer> pred = MorePredicates.memoize(i -> square(i) > 10, 10,
+        Duration.ofMinutes(1));
+    assertTrue(pred.test(4));
+    assertTrue(pred.test(4));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void test_predicate_cacheBuilder() {
+    AtomicLong nanos = new AtomicLong();
+    Predicate<Integer> pred = MorePredicates.memoize(i -> square(i) > 10, CacheBuilder
+        .newBuilder().expireAfterWrite(100, TimeUnit.NANOSECONDS).ticker(new Ticker() {
+
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        }));
+    assertTrue(pred.test(4));
+    nanos.set(99);
+    assertTrue(pred.test(4));
+    assertEquals(1, calls.get());
+    nanos.set(100);
+    assertTrue(pred.test(4));
+    assertEquals(2, calls.get());
+  }
+
+  private int square(int i) {
+    calls.incrementAndGet();
+    return i * i;
+  }
+
+}
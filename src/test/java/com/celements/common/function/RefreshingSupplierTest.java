@@ -0,0 +1,129 @@
+package com.celements.common.function;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class RefreshingSupplierTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final List<Runnable> tasks = new ArrayList<>();
+  private long nanos;
+  private RefreshingSupplier<Integer> supplier;
+
+  @Before
+  public void setUp() {
+    Executor executor = tasks::add;
+    supplier = new RefreshingSupplier<>(this::load, Duration.ofNanos(100), executor, ticker());
+  }
+
+  private Ticker ticker() {
+    return new Ticker() {
+
+      @Override
+      public long read() {
+        return nanos;
+      }
+    };
+  }
+
+  private Integer load() {
+    if (calls.incrementAndGet() > 2) {
+      throw new IllegalStateException();
+    }
+    return calls.get();
+  }
+
+  @Test
+  public void test_get_cached() {
+    assertEquals(1, (int) supplier.get());
+    nanos = 74;
+    assertEquals(1, (int) supplier.get());
+    assertEquals(1, calls.get());
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void test_get_refreshAhead() {
+    assertEquals(1, (int) supplier.get());
+    nanos = 80;
+    assertEquals(1, (int) supplier.get());
+    assertEquals(1, (int) supplier.get());
+    assertEquals(1, tasks.size());
+    tasks.get(0).run();
+    assertEquals(2, (int) supplier.get());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void test_get_refreshFailure() {
+    supplier.get();
+    nanos = 80;
+    tasks.clear();
+    supplier.get();
+    tasks.remove(0).run();
+    nanos = 160;
+    supplier.get();
+    tasks.remove(0).run();
+    assertEquals(2, (int) supplier.get());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void test_get_expired() {
+    assertEquals(1, (int) supplier.get());
+    nanos = 100;
+    assertEquals(2, (int) supplier.get());
+    assertTrue(tasks.isEmpty());
+    nanos = 200;
+    assertThrows(IllegalStateException.class, supplier::get);
+  }
+
+  @Test
+  public void test_get_refreshFailure_backOff() {
+    AtomicInteger attempts = new AtomicInteger();
+    supplier = new RefreshingSupplier<>(() -> {
+      if (attempts.incrementAndGet() > 1) {
+        throw new IllegalStateException();
+      }
+      return 1;
+    }, Duration.ofNanos(100), Runnable::run, ticker());
+    supplier.get();
+    for (nanos = 75; nanos < 80; nanos++) {
+      assertEquals(1, (int) supplier.get());
+    }
+    assertEquals(2, attempts.get());
+    nanos = 80;
+    assertEquals(1, (int) supplier.get());
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void test_get_smallTtl() {
+    supplier = new RefreshingSupplier<>(this::load, Duration.ofNanos(50), tasks::add, ticker());
+    supplier.get();
+    nanos = 10;
+    supplier.get();
+    assertTrue(tasks.isEmpty());
+    nanos = 40;
+    supplier.get();
+    assertEquals(1, tasks.size());
+  }
+
+  @Test
+  public void test_invalidate() {
+    supplier.get();
+    supplier.invalidate();
+    assertEquals(2, (int) supplier.get());
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.celements.common.function;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class RouteFunctionTest {
+
+  private final List<Integer> input = ImmutableList.of(1, 2, 3, 4, 5, 6);
+
+  @Test
+  public void test_route() {
+    RouteFunction<Integer, String> func = new RouteFunction<Integer, String>()
+        .when(i -> (i % 3) == 0, i -> "fizz")
+        .when(i -> (i % 2) == 0, i -> "even")
+        .otherwise(Object::toString);
+    assertEquals(ImmutableList.of("1", "even", "fizz", "even", "5", "fizz"), input.stream()
+        .flatMap(func.stream()).collect(toList()));
+  }
+
+  @Test
+  public void test_route_noOtherwise() {
+    RouteFunction<Integer, String> func = new RouteFunction<Integer, String>()
+        .when(i -> (i % 2) == 0, i -> "even")
+        .when(i -> i == 3, i -> null);
+    assertEquals(ImmutableList.of("even", "even", "even"), input.stream()
+        .flatMap(func.stream()).collect(toList()));
+    assertEquals(Optional.empty(), func.apply(3));
+    assertNull(func.route(5));
+  }
+
+  @Test
+  public void test_route_empty() {
+    assertEquals(Optional.of("x"), new RouteFunction<Integer, String>()
+        .otherwise(i -> "x").apply(1));
+    assertEquals(Optional.empty(), new RouteFunction<Integer, String>().apply(1));
+  }
+
+}
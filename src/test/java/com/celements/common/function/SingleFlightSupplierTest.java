@@ -0,0 +1,71 @@
+package com.celements.common.function;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.celements.common.MoreFunctions;
+import com.google.common.base.Stopwatch;
+
+public class SingleFlightSupplierTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void test_get() {
+    SingleFlightSupplier<Integer> supplier = MoreFunctions.singleFlight(calls::incrementAndGet);
+    assertEquals(1, (int) supplier.get());
+    assertEquals(2, (int) supplier.get());
+    assertFalse(supplier.isInFlight());
+  }
+
+  @Test
+  public void test_get_concurrent() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    SingleFlightSupplier<Integer> supplier = MoreFunctions.singleFlight(() -> {
+      try {
+        latch.await();
+      } catch (InterruptedException exc) {
+        throw new IllegalStateException(exc);
+      }
+      return calls.incrementAndGet();
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<?>[] futures = new Future<?>[4];
+      for (int i = 0; i < futures.length; i++) {
+        futures[i] = executor.submit(supplier::get);
+      }
+      Stopwatch stopwatch = Stopwatch.createStarted();
+      while (supplier.getWaiterCount() < (futures.length - 1)) {
+        assertTrue(stopwatch.elapsed(TimeUnit.SECONDS) < 5);
+        Thread.sleep(1);
+      }
+      assertTrue(supplier.isInFlight());
+      latch.countDown();
+      for (Future<?> future : futures) {
+        assertEquals(1, future.get(1, TimeUnit.SECONDS));
+      }
+      assertEquals(1, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test_get_failure() {
+    SingleFlightSupplier<Integer> supplier = MoreFunctions.singleFlight(() -> {
+      throw new IllegalStateException();
+    });
+    assertThrows(IllegalStateException.class, supplier::get);
+    assertFalse(supplier.isInFlight());
+  }
+
+}
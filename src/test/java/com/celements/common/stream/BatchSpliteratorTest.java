@@ -0,0 +1,88 @@
+package com.celements.common.stream;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+public class BatchSpliteratorTest {
+
+  private final List<Integer> list = IntStream.range(0, 10000).boxed().collect(toList());
+
+  @Test
+  public void test_trySplit() {
+    Spliterator<Integer> spliterator = new BatchSpliterator<>(list.iterator(), list.size(),
+        Spliterator.ORDERED | Spliterator.SIZED, 100);
+    Spliterator<Integer> prefix = spliterator.trySplit();
+    assertEquals(100, prefix.getExactSizeIfKnown());
+    assertTrue(prefix.hasCharacteristics(Spliterator.SUBSIZED));
+    assertEquals(list.size() - 100, spliterator.getExactSizeIfKnown());
+  }
+
+  @Test
+  public void test_trySplit_growing() {
+    Spliterator<Integer> spliterator = new BatchSpliterator<>(list.iterator(), list.size(),
+        Spliterator.ORDERED | Spliterator.SIZED, 100);
+    assertEquals(100, spliterator.trySplit().getExactSizeIfKnown());
+    assertEquals(200, spliterator.trySplit().getExactSizeIfKnown());
+    assertEquals(300, spliterator.trySplit().getExactSizeIfKnown());
+  }
+
+  @Test
+  public void test_trySplit_underestimated() {
+    Spliterator<Integer> spliterator = BatchSpliterator.estimated(list.iterator(), 10);
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(i, spliterator.trySplit().getExactSizeIfKnown());
+    }
+    assertEquals(4 + BatchSpliterator.DEFAULT_BATCH_SIZE,
+        spliterator.trySplit().getExactSizeIfKnown());
+  }
+
+  @Test
+  public void test_trySplit_maxBatchSize() {
+    Spliterator<Integer> spliterator = BatchSpliterator.estimated(
+        IntStream.range(0, 1 << 20).iterator(), Long.MAX_VALUE);
+    long batchSize = 0;
+    for (int i = 0; i < 20; i++) {
+      batchSize = spliterator.trySplit().getExactSizeIfKnown();
+    }
+    assertEquals(BatchSpliterator.MAX_BATCH_SIZE, batchSize);
+  }
+
+  @Test
+  public void test_trySplit_estimated() {
+    Spliterator<Integer> spliterator = BatchSpliterator.estimated(list.iterator(), 10);
+    assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+    assertEquals(-1, spliterator.getExactSizeIfKnown());
+    assertTrue(spliterator.trySplit().hasCharacteristics(Spliterator.SIZED));
+  }
+
+  @Test
+  public void test_sized_parallel() {
+    assertEquals(list, StreamSupport.stream(BatchSpliterator.sized(list.iterator(), list.size()),
+        true).collect(toList()));
+  }
+
+  @Test
+  public void test_estimated_parallel() {
+    assertEquals(list, StreamSupport.stream(BatchSpliterator.estimated(list.iterator(), 50),
+        true).collect(toList()));
+  }
+
+  @Test
+  public void test_batchSizeFor() {
+    assertEquals(BatchSpliterator.DEFAULT_BATCH_SIZE, BatchSpliterator.batchSizeFor(-1));
+    assertEquals(BatchSpliterator.DEFAULT_BATCH_SIZE, BatchSpliterator.batchSizeFor(
+        Long.MAX_VALUE));
+    assertEquals(1, BatchSpliterator.batchSizeFor(1));
+    assertEquals(1, BatchSpliterator.batchSizeFor(10));
+    assertEquals(100, BatchSpliterator.batchSizeFor(6400));
+    assertEquals(BatchSpliterator.DEFAULT_BATCH_SIZE, BatchSpliterator.batchSizeFor(1L << 40));
+  }
+
+}
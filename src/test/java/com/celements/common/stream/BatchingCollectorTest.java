@@ -0,0 +1,37 @@
+package com.celements.common.stream;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class BatchingCollectorTest {
+
+  @Test
+  public void test_collect() {
+    Queue<List<Integer>> batches = new ConcurrentLinkedQueue<>();
+    long count = IntStream.range(0, 7).boxed()
+        .collect(new BatchingCollector<>(3, batches::add));
+    assertEquals(3, count);
+    assertEquals(ImmutableList.of(ImmutableList.of(0, 1, 2), ImmutableList.of(3, 4, 5),
+        ImmutableList.of(6)), ImmutableList.copyOf(batches));
+  }
+
+  @Test
+  public void test_collect_parallel() {
+    Queue<List<Integer>> batches = new ConcurrentLinkedQueue<>();
+    long count = IntStream.range(0, 10000).boxed().parallel()
+        .collect(new BatchingCollector<>(100, batches::add));
+    assertEquals(batches.size(), count);
+    assertTrue(batches.stream().allMatch(batch -> batch.size() <= 100));
+    assertEquals(10000, batches.stream().mapToInt(List::size).sum());
+    assertEquals(49995000, batches.stream().flatMap(List::stream).mapToInt(i -> i).sum());
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.celements.common.stream;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+public class BatchingSpliteratorTest {
+
+  @Test
+  public void test_batches() {
+    Spliterator<Integer> source = IntStream.range(0, 7).boxed().spliterator();
+    assertEquals(ImmutableList.of(ImmutableList.of(0, 1, 2), ImmutableList.of(3, 4, 5),
+        ImmutableList.of(6)), StreamSupport.stream(new BatchingSpliterator<>(source, 3), false)
+            .collect(toList()));
+  }
+
+  @Test
+  public void test_batches_empty() {
+    Spliterator<Integer> source = IntStream.range(0, 0).boxed().spliterator();
+    assertEquals(0, StreamSupport.stream(new BatchingSpliterator<>(source, 3), false).count());
+  }
+
+  @Test
+  public void test_batches_parallel() {
+    Spliterator<Integer> source = IntStream.range(0, 10000).boxed().spliterator();
+    List<List<Integer>> batches = StreamSupport.stream(new BatchingSpliterator<>(source, 100),
+        true).collect(toList());
+    assertTrue(batches.stream().allMatch(batch -> batch.size() <= 100));
+    assertEquals(IntStream.range(0, 10000).boxed().collect(toList()),
+        batches.stream().flatMap(List::stream).collect(toList()));
+  }
+
+  @Test
+  public void test_batches_maxLatency() {
+    Spliterator<Integer> source = IntStream.range(0, 10).boxed().spliterator();
+    Ticker ticker = new Ticker() {
+
+      private long nanos;
+
+      @Override
+      public long read() {
+        return nanos += TimeUnit.MILLISECONDS.toNanos(1);
+      }
+    };
+    List<List<Integer>> batches = StreamSupport.stream(new BatchingSpliterator<>(source, 100,
+        TimeUnit.MILLISECONDS.toNanos(3), ticker), false).collect(toList());
+    assertEquals(ImmutableList.of(0, 1, 2), batches.get(0));
+    assertEquals(4, batches.size());
+  }
+
+}
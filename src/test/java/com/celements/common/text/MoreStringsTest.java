@@ -0,0 +1,72 @@
+package com.celements.common.text;
+
+import static com.celements.common.text.MoreStrings.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class MoreStringsTest {
+
+  @Test
+  public void test_isBlank() {
+    assertTrue(isBlank(null));
+    assertTrue(isBlank(""));
+    assertTrue(isBlank(" \t\n\u0000"));
+    assertFalse(isBlank(" a "));
+    assertFalse(isBlank("\u00a0"));
+    assertTrue(isNotBlank(new StringBuilder("x")));
+  }
+
+  @Test
+  public void test_trimmedView() {
+    String str = "abc";
+    assertSame(str, trimmedView(str));
+    CharSequence view = trimmedView("  ab cd\t");
+    assertEquals(5, view.length());
+    assertEquals('b', view.charAt(1));
+    assertEquals("ab cd", view.toString());
+    assertEquals("b c", view.subSequence(1, 4).toString());
+    assertEquals("", trimmedView("   ").toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> view.charAt(5));
+  }
+
+  @Test
+  public void test_equalsTrimmed() {
+    assertTrue(equalsTrimmed(" ab ", "ab"));
+    assertTrue(equalsTrimmed("ab", new StringBuilder("\tab\n")));
+    assertTrue(equalsTrimmed(" ", ""));
+    assertTrue(equalsTrimmed(null, null));
+    assertFalse(equalsTrimmed(null, ""));
+    assertFalse(equalsTrimmed(" ab ", "a b"));
+    assertFalse(equalsTrimmed("ab", "abc"));
+  }
+
+  @Test
+  public void test_forEachToken() {
+    List<String> tokens = new ArrayList<>();
+    assertEquals(3, forEachToken("  a bc\t\nd ", collect(tokens)));
+    assertEquals(ImmutableList.of("a", "bc", "d"), tokens);
+    assertEquals(0, forEachToken(" ", collect(tokens)));
+  }
+
+  @Test
+  public void test_forEachToken_delimiter() {
+    List<String> tokens = new ArrayList<>();
+    assertEquals(3, forEachToken(" a, ,b c,,d ", ',', collect(tokens)));
+    assertEquals(ImmutableList.of("a", "b c", "d"), tokens);
+    tokens.clear();
+    assertEquals(1, forEachToken("a", ',', collect(tokens)));
+    assertEquals(ImmutableList.of("a"), tokens);
+    assertEquals(0, forEachToken(",", ',', collect(tokens)));
+  }
+
+  private static TokenConsumer collect(List<String> tokens) {
+    return (seq, start, end) -> tokens.add(seq.subSequence(start, end).toString());
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.celements.common.text;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.celements.common.MorePredicates;
+import com.google.common.collect.ImmutableList;
+
+public class MultiPatternMatcherTest {
+
+  private final MultiPatternMatcher matcher = new MultiPatternMatcher(ImmutableList.of(
+      "he", "she", "his", "hers", "\u00fcber"));
+
+  @Test
+  public void test_containsAny() {
+    assertTrue(matcher.containsAny("ushers"));
+    assertTrue(matcher.containsAny("ahis"));
+    assertTrue(matcher.containsAny("xx\u00fcberyy"));
+    assertFalse(matcher.containsAny("hi sh ers"));
+    assertFalse(matcher.containsAny(""));
+  }
+
+  @Test
+  public void test_startsWithAny() {
+    assertTrue(matcher.startsWithAny("hers"));
+    assertTrue(matcher.startsWithAny("hex"));
+    assertTrue(matcher.startsWithAny(new StringBuilder("shell")));
+    assertFalse(matcher.startsWithAny("ushers"));
+    assertFalse(matcher.startsWithAny("h"));
+  }
+
+  @Test
+  public void test_endsWithAny() {
+    assertTrue(matcher.endsWithAny("ushe"));
+    assertTrue(matcher.endsWithAny("thers"));
+    assertTrue(matcher.endsWithAny("this"));
+    assertFalse(matcher.endsWithAny("hersx"));
+    assertFalse(matcher.endsWithAny(""));
+  }
+
+  @Test
+  public void test_emptyPattern() {
+    MultiPatternMatcher empty = new MultiPatternMatcher(ImmutableList.of(""));
+    assertTrue(empty.containsAny(""));
+    assertTrue(empty.startsWithAny("x"));
+    assertTrue(empty.endsWithAny("x"));
+    assertFalse(new MultiPatternMatcher(ImmutableList.of()).containsAny("x"));
+  }
+
+  @Test
+  public void test_random() {
+    Random random = new Random(42);
+    List<String> patterns = IntStream.range(0, 50).mapToObj(i -> randomString(random, 4))
+        .collect(Collectors.toList());
+    Predicate<String> containsAny = MorePredicates.containsAny(patterns);
+    Predicate<String> startsWithAny = MorePredicates.startsWithAny(patterns);
+    Predicate<String> endsWithAny = MorePredicates.endsWithAny(patterns);
+    for (int i = 0; i < 1000; i++) {
+      String input = randomString(random, 12);
+      assertEquals(input, patterns.stream().anyMatch(input::contains),
+          containsAny.test(input));
+      assertEquals(input, patterns.stream().anyMatch(input::startsWith),
+          startsWithAny.test(input));
+      assertEquals(input, patterns.stream().anyMatch(input::endsWith),
+          endsWithAny.test(input));
+    }
+  }
+
+  private static String randomString(Random random, int maxLength) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = random.nextInt(maxLength) + 1; i > 0; i--) {
+      sb.append((char) ('a' + random.nextInt(3)));
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,96 @@
+package com.celements.marshalling;
+
+import java.lang.reflect.Field;
+import java.util.function.ToIntFunction;
+
+import com.celements.marshalling.BeanMarshallerTest.IntMarshaller;
+import com.celements.marshalling.BeanMarshallerTest.TestBean;
+import com.celements.marshalling.BeanMarshallerTest.TestEnum;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Compares the steady state serialization of {@link BeanMarshaller} to plain reflection based
+ * ({@link Field#get}) and hand-written marshalling of the same bean, all using the same
+ * marshallers and escaping. Not run as part of the test suite, run with {@code main} on the test
+ * classpath.
+ */
+public class BeanMarshallerBenchmark {
+
+  private static final int ROUNDS = 5;
+  private static final int ITERATIONS = 2_000_000;
+
+  public static void main(String[] args) throws Exception {
+    BeanMarshaller<TestBean> marshaller = new BeanMarshaller<>(TestBean.class, ImmutableList.of(
+        new DefaultMarshaller(), new IntMarshaller(), new EnumMarshaller<>(TestEnum.class)));
+    Field[] fields = { field("name"), field("count"), field("type") };
+    Marshaller<?>[] marshallers = { new DefaultMarshaller(), new IntMarshaller(),
+        new EnumMarshaller<>(TestEnum.class) };
+    TestBean bean = new TestBean("name", 42, TestEnum.B);
+    for (int round = 1; round <= ROUNDS; round++) {
+      System.out.printf("round %d: handwritten %.1f ns/op, method handles %.1f ns/op, "
+          + "reflection %.1f ns/op%n", round,
+          measure(b -> serializeHandwritten(b).length(), bean),
+          measure(b -> marshaller.serialize(b).length(), bean),
+          measure(b -> serializeReflective(fields, marshallers, b).length(), bean));
+    }
+  }
+
+  private static Field field(String name) throws NoSuchFieldException {
+    Field field = TestBean.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return field;
+  }
+
+  private static String serializeHandwritten(TestBean bean) {
+    StringBuilder sb = new StringBuilder();
+    escape(bean.getName(), sb.append("name="));
+    escape(Integer.toString(bean.getCount()), sb.append(";count="));
+    escape(bean.getType().name(), sb.append(";type="));
+    return sb.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String serializeReflective(Field[] fields, Marshaller<?>[] marshallers,
+      TestBean bean) {
+    try {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < fields.length; i++) {
+        Object value = fields[i].get(bean);
+        if (value != null) {
+          if (sb.length() > 0) {
+            sb.append(';');
+          }
+          escape(fields[i].getName(), sb);
+          escape(((Marshaller<Object>) marshallers[i]).serialize(value), sb.append('='));
+        }
+      }
+      return sb.toString();
+    } catch (IllegalAccessException exc) {
+      throw new IllegalStateException(exc);
+    }
+  }
+
+  private static void escape(String str, StringBuilder sb) {
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if ((c == '\\') || (c == ';') || (c == '=')) {
+        sb.append('\\');
+      }
+      sb.append(c);
+    }
+  }
+
+  private static double measure(ToIntFunction<TestBean> op, TestBean bean) {
+    int sink = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      sink += op.applyAsInt(bean);
+    }
+    long nanos = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.print("");
+    }
+    return (double) nanos / ITERATIONS;
+  }
+
+}
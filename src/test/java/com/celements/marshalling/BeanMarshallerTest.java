@@ -0,0 +1,182 @@
+package com.celements.marshalling;
+
+import static org.junit.Assert.*;
+
+import java.util.Objects;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+public class BeanMarshallerTest {
+
+  private BeanMarshaller<TestBean> marshaller;
+
+  @Before
+  public void setUp() throws Exception {
+    marshaller = new BeanMarshaller<>(TestBean.class, ImmutableList.of(
+        new DefaultMarshaller(), new IntMarshaller(), new EnumMarshaller<>(TestEnum.class)));
+  }
+
+  @Test
+  public void test_serialize() {
+    TestBean bean = new TestBean("a;b=c\\d", 42, TestEnum.B);
+    assertEquals("name=a\\;b\\=c\\\\d;count=42;type=B", marshaller.serialize(bean));
+  }
+
+  @Test
+  public void test_serialize_null() {
+    assertEquals("count=0", marshaller.serialize(new TestBean(null, 0, null)));
+  }
+
+  @Test
+  public void test_resolve() {
+    TestBean bean = new TestBean("a;b=c\\d", 42, TestEnum.B);
+    assertEquals(Optional.of(bean), marshaller.resolve(marshaller.serialize(bean)));
+  }
+
+  @Test
+  public void test_resolve_unknownProperty() {
+    assertEquals(Optional.of(new TestBean("x", 0, null)),
+        marshaller.resolve("other=1;name=x;type=INVALID"));
+  }
+
+  @Test
+  public void test_resolve_illegal() {
+    assertFalse(marshaller.resolve("name=x;illegal").isPresent());
+  }
+
+  @Test
+  public void test_missingMarshaller() {
+    assertThrows(IllegalArgumentException.class, () -> new BeanMarshaller<>(TestBean.class,
+        ImmutableList.of(new DefaultMarshaller())));
+  }
+
+  @Test
+  public void test_immutable() {
+    BeanMarshaller<ImmutableBean> immutableMarshaller = new BeanMarshaller<>(ImmutableBean.class,
+        ImmutableList.of(new DefaultMarshaller(), new IntMarshaller()));
+    ImmutableBean bean = new ImmutableBean("a=b", 42);
+    assertEquals("name=a\\=b;count=42", immutableMarshaller.serialize(bean));
+    assertEquals(Optional.of(bean), immutableMarshaller.resolve(immutableMarshaller.serialize(
+        bean)));
+    assertEquals(Optional.of(new ImmutableBean(null, 0)), immutableMarshaller.resolve(""));
+  }
+
+  @Test
+  public void test_immutable_noConstructor() {
+    IllegalArgumentException exc = assertThrows(IllegalArgumentException.class,
+        () -> new BeanMarshaller<>(PartiallyFinalBean.class, ImmutableList.of(
+            new DefaultMarshaller(), new IntMarshaller())));
+    assertTrue(exc.getMessage(), exc.getMessage().contains("no constructor taking all fields"));
+    assertThrows(IllegalArgumentException.class, () -> new BeanMarshaller<>(ImmutableBean.class,
+        () -> new ImmutableBean("", 0), ImmutableList.of(new DefaultMarshaller(),
+            new IntMarshaller())));
+  }
+
+  enum TestEnum {
+    A, B;
+  }
+
+  static class TestBean {
+
+    static final String IGNORED_STATIC = "";
+
+    private String name;
+    private int count;
+    private TestEnum type;
+    private transient Object ignoredTransient;
+
+    TestBean() {}
+
+    TestBean(String name, int count, TestEnum type) {
+      this.name = name;
+      this.count = count;
+      this.type = type;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    int getCount() {
+      return count;
+    }
+
+    TestEnum getType() {
+      return type;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof TestBean) {
+        TestBean other = (TestBean) obj;
+        return Objects.equals(name, other.name) && (count == other.count)
+            && (type == other.type);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, count, type);
+    }
+  }
+
+  static final class ImmutableBean {
+
+    private final String name;
+    private final int count;
+
+    ImmutableBean(String name, int count) {
+      this.name = name;
+      this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof ImmutableBean) {
+        ImmutableBean other = (ImmutableBean) obj;
+        return Objects.equals(name, other.name) && (count == other.count);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, count);
+    }
+  }
+
+  static class PartiallyFinalBean {
+
+    private final String name;
+    private int count;
+
+    PartiallyFinalBean(String name) {
+      this.name = name;
+    }
+  }
+
+  static class IntMarshaller extends AbstractMarshaller<Integer> {
+
+    IntMarshaller() {
+      super(Integer.class);
+    }
+
+    @Override
+    public String serialize(Integer val) {
+      return val.toString();
+    }
+
+    @Override
+    public Optional<Integer> resolve(String val) {
+      return Optional.fromJavaUtil(java.util.Optional.ofNullable(val)
+          .filter(s -> s.matches("-?\\d+"))
+          .map(Integer::valueOf));
+    }
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.celements.marshalling;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DefaultMarshallerTest {
+
+  @Test
+  public void test_resolve() {
+    String val = new String("val");
+    assertSame(val, new DefaultMarshaller().resolve(val).get());
+  }
+
+  @Test
+  public void test_resolve_interning() {
+    DefaultMarshaller marshaller = new DefaultMarshaller(true);
+    String val = marshaller.resolve(new String("val")).get();
+    assertEquals("val", val);
+    assertSame(val, marshaller.resolve(new String("val")).get());
+    assertSame(val, new DefaultMarshaller(true).resolve(new String("val")).get());
+  }
+
+}
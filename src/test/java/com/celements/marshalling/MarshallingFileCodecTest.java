@@ -0,0 +1,74 @@
+package com.celements.marshalling;
+
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.celements.marshalling.MarshallingFileCodec.MappedLineSpliterator;
+import com.google.common.collect.ImmutableList;
+
+public class MarshallingFileCodecTest {
+
+  private MarshallingFileCodec<String> codec;
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    codec = new MarshallingFileCodec<>(new DefaultMarshaller());
+    file = Files.createTempFile("codec", ".txt");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void test_write_read() throws Exception {
+    List<String> values = ImmutableList.of("a", "", "multi\nline\r\nvalue", "back\\nslash",
+        "\u00e4\u00f6\u00fc");
+    codec.write(file, values.stream());
+    try (Stream<String> stream = codec.read(file)) {
+      assertEquals(values, stream.collect(toList()));
+    }
+  }
+
+  @Test
+  public void test_read_empty() throws Exception {
+    try (Stream<String> stream = codec.read(file)) {
+      assertEquals(0, stream.count());
+    }
+  }
+
+  @Test
+  public void test_read_parallel() throws Exception {
+    List<String> values = IntStream.range(0, 50000).mapToObj(i -> "value" + i).collect(toList());
+    codec.write(file, values.stream());
+    try (Stream<String> stream = codec.read(file)) {
+      assertEquals(values, stream.parallel().collect(toList()));
+    }
+  }
+
+  @Test
+  public void test_spliterator_smallWindow() throws Exception {
+    List<String> values = IntStream.range(0, 1000).mapToObj(i -> "value" + i).collect(toList());
+    codec.write(file, values.stream());
+    try (FileChannel channel = FileChannel.open(file)) {
+      Spliterator<String> spliterator = new MappedLineSpliterator(channel, 0, channel.size(), 5);
+      assertEquals(values, StreamSupport.stream(spliterator, false).collect(toList()));
+    }
+  }
+
+}